@@ -3,24 +3,46 @@ package dev.Pedro.movies_api.controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import dev.Pedro.movies_api.dto.request.LogHistogramRequest;
+import dev.Pedro.movies_api.dto.request.LogRollupRequest;
 import dev.Pedro.movies_api.dto.request.SearchLogRequest;
+import dev.Pedro.movies_api.dto.response.LogHistogramBucket;
+import dev.Pedro.movies_api.dto.response.LogRollup;
+import dev.Pedro.movies_api.dto.response.LogSearchPage;
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.service.LogStatisticsService;
 import dev.Pedro.movies_api.service.LoggingService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.bson.Document;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controller that provides access to application logs.
  * <p>
  * This controller is mainly intended for administrative use and allows
- * filtered log searching through the {@link LoggingService}.
+ * filtered log searching and exporting through the {@link LoggingService},
+ * and log volume histograms and hourly summaries through the
+ * {@link LogStatisticsService}.
  * </p>
  */
 @RestController
@@ -29,14 +51,23 @@ import org.springframework.web.bind.annotation.RequestBody;
 public class LoggingController {
 
     private final LoggingService loggingService;
+    private final LogStatisticsService logStatisticsService;
+    private final long exportTimeoutMs;
 
     /**
-     * Creates a new {@code LoggingController} with the required logging service.
+     * Creates a new {@code LoggingController} with the required logging services.
      *
-     * @param loggingService the service responsible for executing log queries
+     * @param loggingService       the service responsible for executing log
+     *                             queries
+     * @param logStatisticsService the service answering log volume queries
+     * @param config               configuration values holding the export
+     *                             timeout
      */
-    public LoggingController(LoggingService loggingService) {
+    public LoggingController(LoggingService loggingService, LogStatisticsService logStatisticsService,
+            LoggingVariables config) {
         this.loggingService = loggingService;
+        this.logStatisticsService = logStatisticsService;
+        this.exportTimeoutMs = config.getSearch().getExportTimeoutMs();
     }
 
     /**
@@ -51,30 +82,165 @@ public class LoggingController {
      * @param logRequest the search filter request, including level, timestamp
      *                   range,
      *                   thread, logger, MDC values, keywords, and sorting options
-     * @return a {@code ResponseEntity} containing a list of log entries
-     *         as {@link Document} objects that match the given criteria
+     * @return a {@code ResponseEntity} containing a page of log entries
+     *         as {@link Document} objects that match the given criteria, and
+     *         the cursor of the next page
      */
     @PostMapping("/search")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Document>> searchLogsFilter(@Valid @RequestBody SearchLogRequest logRequest) {
+    public ResponseEntity<LogSearchPage> searchLogsFilter(@Valid @RequestBody SearchLogRequest logRequest) {
 
         long start = System.currentTimeMillis();
 
-        log.info("Request received to access Logs with filters: {}, {}, {}, {}, {}, {}, {}, {}", logRequest.getLevel(),
+        log.info("Request received to access Logs with filters: {}, {}, {}, {}, {}, {}, {}, {}, limit {}",
+                logRequest.getLevel(),
                 logRequest.getTimestampAfter(),
                 logRequest.getTimestampBefore(),
                 logRequest.getThread(),
                 logRequest.getLogger(),
                 logRequest.getMdc() != null ? logRequest.getMdc().toString() : null,
                 logRequest.getMessageKeywords(),
-                logRequest.isSortByTimestamp());
+                logRequest.isSortByTimestamp(),
+                logRequest.getLimit());
 
-        List<Document> logs = loggingService.searchLogs(logRequest);
+        LogSearchPage page = loggingService.searchLogs(logRequest);
 
         long duration = System.currentTimeMillis() - start;
-        log.info("Search Logs completed. Returning {} logs. Search duration: {}ms", logs.size(), duration);
+        log.info("Search Logs completed. Returning {} logs. Search duration: {}ms", page.getLogs().size(), duration);
 
-        return ResponseEntity.ok(logs);
+        return ResponseEntity.ok(page);
     }
 
-}
\ No newline at end of file
+    /**
+     * Exports the application logs matching the given filter criteria as a
+     * gzip-compressed NDJSON file.
+     * <p>
+     * Only accessible to users with the {@code ADMIN} role. The logs are
+     * streamed from a MongoDB cursor straight into the response, so exports of
+     * any size use the same amount of memory. The request may run for
+     * {@code logging.search.export-timeout-ms}, other async requests keep the
+     * default timeout.
+     * </p>
+     *
+     * @param logRequest the search filter request; {@code limit} and
+     *                   {@code cursor} are ignored
+     * @param request    the current request, whose async timeout is raised
+     * @return a {@code ResponseEntity} streaming the matching log entries, one
+     *         JSON document per line
+     */
+    @PostMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportLogs(@Valid @RequestBody SearchLogRequest logRequest,
+            HttpServletRequest request) {
+
+        log.info("Request received to export Logs with filters: {}, {}, {}, {}, {}, {}, {}", logRequest.getLevel(),
+                logRequest.getTimestampAfter(),
+                logRequest.getTimestampBefore(),
+                logRequest.getThread(),
+                logRequest.getLogger(),
+                logRequest.getMdc() != null ? logRequest.getMdc().toString() : null,
+                logRequest.getMessageKeywords());
+
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(LoggingController.class.getName(),
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest webRequest, Callable<T> task) {
+                        if (webRequest instanceof AsyncWebRequest asyncRequest)
+                            asyncRequest.setTimeout(exportTimeoutMs);
+                    }
+                });
+
+        StreamingResponseBody body = out -> {
+            long start = System.currentTimeMillis();
+            long exported = loggingService.exportLogs(logRequest, out);
+            log.info("Export Logs completed. Exported {} logs. Export duration: {}ms", exported,
+                    System.currentTimeMillis() - start);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("logs-" + System.currentTimeMillis() + ".ndjson.gz")
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    /**
+     * Counts application logs per time bucket.
+     * <p>
+     * Only accessible to users with the {@code ADMIN} role. The counts come
+     * from the per-minute log counters, not from the logs themselves.
+     * </p>
+     *
+     * @param histogramRequest the time range, bucket width, level and logger
+     *                         filters, and the fields to group by
+     * @return a {@code ResponseEntity} containing the number of logs per bucket
+     */
+    @PostMapping("/histogram")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<LogHistogramBucket>> logHistogram(
+            @Valid @RequestBody LogHistogramRequest histogramRequest) {
+
+        log.info("Request received for Log histogram: {} to {}, {} min buckets, grouped by {}",
+                histogramRequest.getFrom(),
+                histogramRequest.getTo(),
+                histogramRequest.getBucketMinutes(),
+                histogramRequest.getGroupBy());
+
+        return ResponseEntity.ok(logStatisticsService.histogram(histogramRequest));
+    }
+
+    /**
+     * Returns hourly summaries of application logs.
+     * <p>
+     * Only accessible to users with the {@code ADMIN} role. The summaries are
+     * kept longer than the logs themselves, so this covers ranges that
+     * {@code /search} no longer can.
+     * </p>
+     *
+     * @param rollupRequest the time range and the level and logger filters
+     * @return a {@code ResponseEntity} containing one summary per hour, level
+     *         and logger
+     */
+    @PostMapping("/rollups")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<LogRollup>> logRollups(@Valid @RequestBody LogRollupRequest rollupRequest) {
+
+        log.info("Request received for Log rollups: {} to {}, level {}, logger {}",
+                rollupRequest.getFrom(),
+                rollupRequest.getTo(),
+                rollupRequest.getLevel(),
+                rollupRequest.getLogger());
+
+        return ResponseEntity.ok(logStatisticsService.rollups(rollupRequest));
+    }
+
+    /**
+     * Streams new application logs matching the given filter criteria as
+     * Server-Sent Events.
+     * <p>
+     * Only accessible to users with the {@code ADMIN} role. The filters are
+     * passed as query parameters, so the endpoint works with a browser
+     * {@code EventSource}. Each matching log is sent as a {@code log} event;
+     * a client that cannot keep up receives a {@code disconnect} event and is
+     * dropped.
+     * </p>
+     *
+     * @param logRequest the search filter request; pagination and sorting are
+     *                   ignored
+     * @return the emitter streaming the matching logs
+     */
+    @GetMapping(path = "/tail", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public SseEmitter tailLogs(@Valid @ModelAttribute SearchLogRequest logRequest) {
+
+        log.info("Request received to tail Logs with filters: {}, {}, {}, {}, {}", logRequest.getLevel(),
+                logRequest.getThread(),
+                logRequest.getLogger(),
+                logRequest.getMdc() != null ? logRequest.getMdc().toString() : null,
+                logRequest.getMessageKeywords());
+
+        return loggingService.tailLogs(logRequest);
+    }
+}
@@ -1,6 +1,7 @@
 package dev.Pedro.movies_api.dto.request;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 import org.springframework.format.annotation.DateTimeFormat;
 
@@ -8,6 +9,7 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 
 import jakarta.annotation.Nullable;
 import jakarta.validation.constraints.PastOrPresent;
+import jakarta.validation.constraints.Positive;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -37,10 +39,27 @@ public class SearchLogRequest {
     private String logger;
 
     @Nullable
-    private Object mdc;
+    private Map<String, String> mdc;
 
     @Nullable
     private String messageKeywords;
 
+    /**
+     * Whether {@link #messageKeywords} is a regular expression. Messages logged
+     * with arguments are stored as a template and its arguments, and the
+     * expression is matched against the template and against each argument on
+     * its own, not against the formatted message: an expression spanning
+     * template text and an argument, such as {@code "movie tt0111161"}, does
+     * not match them.
+     */
+    private boolean messageRegex = false;
+
     private boolean sortByTimestamp = true;
+
+    @Nullable
+    @Positive
+    private Integer limit;
+
+    @Nullable
+    private String cursor;
 }
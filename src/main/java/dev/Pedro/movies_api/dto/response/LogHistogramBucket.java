@@ -0,0 +1,26 @@
+package dev.Pedro.movies_api.dto.response;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number of logs in one time bucket of a histogram. Level, logger and thread
+ * are only set when the histogram is grouped by them.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogHistogramBucket {
+
+    private LocalDateTime bucket;
+    private String level;
+    private String logger;
+    private String thread;
+    private long count;
+}
@@ -0,0 +1,41 @@
+package dev.Pedro.movies_api.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Summary of the logs of one level and logger during one hour: how many there
+ * were, when the first and last were logged, and the most frequent message
+ * templates.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogRollup {
+
+    private LocalDateTime hour;
+    private String level;
+    private String logger;
+    private long count;
+    private LocalDateTime firstSeen;
+    private LocalDateTime lastSeen;
+    private List<Message> topMessages;
+
+    /**
+     * A message template and the number of times it was logged during the
+     * hour. Messages logged without arguments have no template id and are their
+     * own template.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Message {
+        private Long templateId;
+        private String message;
+        private long count;
+    }
+}
@@ -0,0 +1,25 @@
+package dev.Pedro.movies_api.dto.response;
+
+import java.util.List;
+
+import org.bson.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of log search results.
+ * <p>
+ * {@code nextCursor} is {@code null} on the last page; otherwise it is passed
+ * back as {@code cursor} in the same search request to fetch the next page.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogSearchPage {
+
+    private List<Document> logs;
+    private String nextCursor;
+}
@@ -57,6 +57,18 @@ public class GlobalExceptionHandler {
                 return ResponseEntity.badRequest().body(error);
         }
 
+        @ExceptionHandler(InvalidLogSearchRequestException.class)
+        public ResponseEntity<ApiResponse> handleInvalidLogSearchRequest(InvalidLogSearchRequestException ex,
+                        HttpServletRequest request) {
+
+                ApiResponse error = new ApiResponse(
+                                HttpStatus.BAD_REQUEST.value(),
+                                "Bad request",
+                                ex.getMessage(),
+                                request.getRequestURI());
+                return ResponseEntity.badRequest().body(error);
+        }
+
         @ExceptionHandler(MovieNotFoundException.class)
         public ResponseEntity<ApiResponse> handleMovieNotFound(MovieNotFoundException ex,
                         HttpServletRequest request) {
@@ -0,0 +1,7 @@
+package dev.Pedro.movies_api.exception;
+
+public class InvalidLogSearchRequestException extends RuntimeException {
+    public InvalidLogSearchRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,138 @@
+package dev.Pedro.movies_api.logging;
+
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AIMD (additive increase, multiplicative decrease) controller for the size
+ * and linger time of the log batches written to MongoDB.
+ * <p>
+ * Every {@code insertMany} reports its latency. While writes stay under
+ * {@code logging.adaptive.target-latency-ms}, the batch size grows by
+ * {@code logging.adaptive.additive-step}, so peaks are served with fewer
+ * round trips. A slow or failed write multiplies it by
+ * {@code logging.adaptive.decrease-factor}, so a degraded database gets small
+ * batches that finish before the {@code TimeLimiter} gives up on them. The
+ * linger time follows the batch size linearly between its bounds.
+ * </p>
+ * <p>
+ * When {@code logging.adaptive.enabled} is {@code false}, the static
+ * {@code logging.batch-size} and {@code logging.max-linger-ms} are used.
+ * </p>
+ */
+@Component
+public class AdaptiveBatchController {
+
+    /**
+     * Weight of the latest sample in the latency and error-rate averages.
+     */
+    private static final double EWMA_WEIGHT = 0.2;
+
+    private final LoggingVariables config;
+    private final LoggingVariables.Adaptive bounds;
+
+    private int batchSize;
+    private long lingerMs;
+    private double averageLatencyMs;
+    private double errorRate;
+
+    /**
+     * Creates the controller, starting from the static batch settings.
+     *
+     * @param config configuration values holding the batch bounds
+     */
+    public AdaptiveBatchController(LoggingVariables config) {
+        this.config = config;
+        this.bounds = config.getAdaptive();
+        this.batchSize = clamp(config.getBatchSize(), bounds.getMinBatchSize(), bounds.getMaxBatchSize());
+        this.lingerMs = lingerFor(batchSize);
+    }
+
+    /**
+     * Returns the batch size the drain loop should use now.
+     *
+     * @return the current batch size
+     */
+    public synchronized int getBatchSize() {
+        return bounds.isEnabled() ? batchSize : config.getBatchSize();
+    }
+
+    /**
+     * Returns the linger time the drain loop should use now.
+     *
+     * @return the current linger time in milliseconds
+     */
+    public synchronized long getLingerMs() {
+        return bounds.isEnabled() ? lingerMs : config.getMaxLingerMs();
+    }
+
+    /**
+     * Returns the moving average of the write latency.
+     *
+     * @return the average latency in milliseconds
+     */
+    public synchronized double getAverageLatencyMs() {
+        return averageLatencyMs;
+    }
+
+    /**
+     * Returns the moving average of the write error rate.
+     *
+     * @return the error rate, between 0 and 1
+     */
+    public synchronized double getErrorRate() {
+        return errorRate;
+    }
+
+    /**
+     * Records a successful batch write.
+     *
+     * @param size         the number of events written
+     * @param elapsedNanos how long the write took
+     */
+    public synchronized void onBatchWritten(int size, long elapsedNanos) {
+        double latencyMs = (double) elapsedNanos / TimeUnit.MILLISECONDS.toNanos(1);
+        averageLatencyMs = averageLatencyMs == 0 ? latencyMs
+                : EWMA_WEIGHT * latencyMs + (1 - EWMA_WEIGHT) * averageLatencyMs;
+        errorRate = (1 - EWMA_WEIGHT) * errorRate;
+
+        if (latencyMs > bounds.getTargetLatencyMs()) {
+            decrease();
+        } else if (size >= batchSize) {
+            // Only grow when batches actually fill up
+            resize(batchSize + bounds.getAdditiveStep());
+        }
+    }
+
+    /**
+     * Records a failed batch write.
+     */
+    public synchronized void onBatchFailed() {
+        errorRate = EWMA_WEIGHT + (1 - EWMA_WEIGHT) * errorRate;
+        decrease();
+    }
+
+    private void decrease() {
+        resize((int) (batchSize * bounds.getDecreaseFactor()));
+    }
+
+    private void resize(int size) {
+        batchSize = clamp(size, bounds.getMinBatchSize(), bounds.getMaxBatchSize());
+        lingerMs = lingerFor(batchSize);
+    }
+
+    private long lingerFor(int size) {
+        int range = bounds.getMaxBatchSize() - bounds.getMinBatchSize();
+        if (range <= 0)
+            return bounds.getMaxLingerMs();
+        double fraction = (double) (size - bounds.getMinBatchSize()) / range;
+        return bounds.getMinLingerMs() + Math.round(fraction * (bounds.getMaxLingerMs() - bounds.getMinLingerMs()));
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
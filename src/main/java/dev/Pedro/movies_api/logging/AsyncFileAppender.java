@@ -0,0 +1,444 @@
+package dev.Pedro.movies_api.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.util.FileSize;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Logback file appender that takes disk I/O off the logging thread.
+ * <p>
+ * {@link #append(ILoggingEvent)} only hands the event to a bounded ring buffer
+ * ({@link ArrayBlockingQueue}) and never waits for room. A single writer
+ * thread drains the buffer in batches, encodes the events with the configured
+ * encoder into a preallocated direct {@link ByteBuffer} of
+ * {@code bufferSize} bytes, and writes the buffer to the file with one
+ * {@link FileChannel} write per batch, or whenever it fills up.
+ * </p>
+ * <p>
+ * Discard policy: once fewer than {@code discardingThreshold} slots are free,
+ * {@code TRACE}, {@code DEBUG} and {@code INFO} events are discarded, keeping
+ * the remaining room for warnings and errors. When the buffer is full, any
+ * event is discarded. Discards are counted by level and, together with the
+ * queue depth, published by {@link LogPipelineMetrics}.
+ * </p>
+ * <p>
+ * The writer thread also rolls the file: when it reaches {@code maxFileSize}
+ * or the day changes, it is renamed to {@code <name>.<yyyy-MM-dd>.<i>.log}.
+ * Rolled files older than {@code maxHistory} days are deleted, then the oldest
+ * ones while they take more than {@code totalSizeCap}. When the rename fails,
+ * writing goes on in the active file and the roll is retried after
+ * {@code rollRetryMs}. Events of a batch that cannot be written are counted
+ * as discarded.
+ * </p>
+ */
+public class AsyncFileAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    /**
+     * Levels tracked by the discard counters, in ascending severity.
+     */
+    static final String[] LEVELS = { "TRACE", "DEBUG", "INFO", "WARN", "ERROR" };
+
+    private static final String ROLLED_SUFFIX = ".log";
+
+    // Settings, set by Logback from logback-spring.xml
+    @Setter
+    private Encoder<ILoggingEvent> encoder;
+    @Setter
+    private String file;
+    @Setter
+    private int queueSize = 8192;
+    /**
+     * Free slots below which events under {@code WARN} are discarded; a fifth
+     * of {@code queueSize} when not set.
+     */
+    @Setter
+    private int discardingThreshold = -1;
+    @Setter
+    private int bufferSize = 256 * 1024;
+    @Setter
+    private int maxBatchSize = 1024;
+    @Setter
+    private long flushIntervalMs = 200;
+    @Setter
+    private long maxFlushTimeMs = 1000;
+    @Setter
+    private FileSize maxFileSize = FileSize.valueOf("10MB");
+    @Setter
+    private int maxHistory = 30;
+    @Setter
+    private FileSize totalSizeCap = FileSize.valueOf("100MB");
+    @Setter
+    private long rollRetryMs = 60000;
+
+    private final LongAdder[] discarded = new LongAdder[LEVELS.length];
+
+    private BlockingQueue<ILoggingEvent> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    // Writer thread state
+    private ByteBuffer buffer;
+    private Path path;
+    private FileChannel channel;
+    private long fileSize;
+    private LocalDate fileDay;
+
+    /**
+     * Earliest {@link System#nanoTime()} of the next roll attempt, pushed back
+     * after a failed one.
+     */
+    private long nextRollNanos = System.nanoTime();
+
+    /**
+     * Default no-args constructor required by Logback for instantiating appenders.
+     */
+    public AsyncFileAppender() {
+        for (int i = 0; i < LEVELS.length; i++) {
+            discarded[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Checks the configuration and starts the writer thread.
+     */
+    @Override
+    public void start() {
+        if (isStarted())
+            return;
+        if (encoder == null || file == null) {
+            addError("No encoder or file set for the appender named [" + name + "]");
+            return;
+        }
+        if (discardingThreshold < 0)
+            discardingThreshold = queueSize / 5;
+
+        queue = new ArrayBlockingQueue<>(queueSize);
+        buffer = ByteBuffer.allocateDirect(bufferSize);
+        path = Paths.get(file);
+        try {
+            open();
+        } catch (IOException e) {
+            addError("Cannot open log file " + path, e);
+            return;
+        }
+
+        running = true;
+        writer = new Thread(this::writeLoop, "async-file-writer-" + name);
+        writer.setDaemon(true);
+        writer.start();
+        super.start();
+    }
+
+    /**
+     * Stops accepting events and lets the writer thread write the queued ones,
+     * for at most {@code maxFlushTimeMs}.
+     */
+    @Override
+    public void stop() {
+        if (!isStarted())
+            return;
+        super.stop();
+        running = false;
+        try {
+            // Never interrupt the writer: an interrupt closes its FileChannel
+            writer.join(maxFlushTimeMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive())
+            addWarn("Writer thread did not finish within " + maxFlushTimeMs + " ms, " + queue.size()
+                    + " events may be lost");
+    }
+
+    /**
+     * Hands an event to the writer thread, or discards it according to the
+     * discard policy. Never blocks.
+     *
+     * @param event the logging event
+     */
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (queue.remainingCapacity() < discardingThreshold && event.getLevel().toInt() <= Level.INFO_INT) {
+            discard(event);
+            return;
+        }
+        // Capture the thread name, MDC and message before changing threads
+        event.prepareForDeferredProcessing();
+        if (!queue.offer(event))
+            discard(event);
+    }
+
+    /**
+     * Returns the number of events waiting for the writer thread.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return queue != null ? queue.size() : 0;
+    }
+
+    /**
+     * Returns the number of events discarded so far, by level.
+     *
+     * @return the discard counts, keyed by level
+     */
+    public Map<String, Long> getDiscardedCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < LEVELS.length; i++) {
+            counts.put(LEVELS[i], discarded[i].sum());
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the number of events of a level discarded so far.
+     *
+     * @param level the level name
+     * @return the discard count of that level
+     */
+    public long getDiscardedCount(String level) {
+        return discarded[levelIndex(level)].sum();
+    }
+
+    private void discard(ILoggingEvent event) {
+        discarded[levelIndex(event.getLevel().toString())].increment();
+    }
+
+    private static int levelIndex(String level) {
+        for (int i = 0; i < LEVELS.length; i++) {
+            if (LEVELS[i].equals(level))
+                return i;
+        }
+        return 0;
+    }
+
+    /**
+     * Body of the writer thread. Keeps writing until the appender is stopped
+     * and the queue is empty.
+     */
+    private void writeLoop() {
+        List<ILoggingEvent> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ILoggingEvent first = running ? queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS) : queue.poll();
+                if (first == null)
+                    continue;
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (IOException | RuntimeException e) {
+                addError("Failed to write " + batch.size() + " log events to " + path, e);
+                batch.forEach(this::discard);
+                reopen();
+            } finally {
+                batch.clear();
+            }
+        }
+        close();
+    }
+
+    /**
+     * Encodes a batch into the direct buffer and writes it, rolling the file
+     * first when needed.
+     */
+    private void write(List<ILoggingEvent> batch) throws IOException {
+        if (channel == null)
+            open();
+        if ((fileSize >= maxFileSize.getSize() || !LocalDate.now().equals(fileDay))
+                && System.nanoTime() - nextRollNanos >= 0)
+            roll();
+
+        for (ILoggingEvent event : batch) {
+            put(encoder.encode(event));
+        }
+        flushBuffer();
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        if (bytes == null || bytes.length == 0)
+            return;
+        if (bytes.length > buffer.remaining())
+            flushBuffer();
+        if (bytes.length > buffer.capacity()) {
+            writeFully(ByteBuffer.wrap(bytes));
+        } else {
+            buffer.put(bytes);
+        }
+        fileSize += bytes.length;
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        try {
+            writeFully(buffer);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * Opens the active file for appending, writing the encoder header if it is
+     * new.
+     */
+    private void open() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        fileSize = channel.size();
+        fileDay = fileSize > 0
+                ? LocalDate.ofInstant(Files.getLastModifiedTime(path).toInstant(), ZoneId.systemDefault())
+                : LocalDate.now();
+        if (fileSize == 0) {
+            put(encoder.headerBytes());
+            flushBuffer();
+        }
+    }
+
+    /**
+     * Renames the active file after its day and index, opens a new one and
+     * deletes the rolled files past the history and size limits. If the rename
+     * fails, the active file is reopened and the next attempt waits
+     * {@code rollRetryMs}.
+     */
+    private void roll() throws IOException {
+        closeChannel();
+        String base = baseName();
+        Path rolled;
+        int index = 0;
+        do {
+            rolled = path.resolveSibling(base + "." + fileDay + "." + index++ + ROLLED_SUFFIX);
+        } while (Files.exists(rolled));
+        try {
+            Files.move(path, rolled, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            addWarn("Cannot roll log file " + path + ", retrying in " + rollRetryMs + " ms", e);
+            nextRollNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(rollRetryMs);
+            open();
+            return;
+        }
+        open();
+        deleteOldFiles(base);
+    }
+
+    private void deleteOldFiles(String base) {
+        LocalDate oldest = LocalDate.now().minusDays(maxHistory);
+        List<RolledFile> rolled = new ArrayList<>();
+        try (Stream<Path> files = Files.list(path.toAbsolutePath().getParent())) {
+            files.map(candidate -> RolledFile.of(candidate, base)).filter(r -> r != null).forEach(rolled::add);
+        } catch (IOException e) {
+            addWarn("Cannot list rolled log files of " + path, e);
+            return;
+        }
+        rolled.sort(Comparator.comparing(RolledFile::day).thenComparingInt(RolledFile::index));
+
+        long total = 0;
+        for (RolledFile r : rolled) {
+            total += r.size();
+        }
+        for (RolledFile r : rolled) {
+            if (!r.day().isBefore(oldest) && total <= totalSizeCap.getSize())
+                break;
+            try {
+                Files.deleteIfExists(r.path());
+                total -= r.size();
+            } catch (IOException e) {
+                addWarn("Cannot delete rolled log file " + r.path(), e);
+            }
+        }
+    }
+
+    /**
+     * A rolled file, {@code <base>.<yyyy-MM-dd>.<i>.log}.
+     */
+    private record RolledFile(Path path, LocalDate day, int index, long size) {
+
+        static RolledFile of(Path candidate, String base) {
+            String name = candidate.getFileName().toString();
+            if (!name.startsWith(base + ".") || !name.endsWith(ROLLED_SUFFIX)
+                    || name.length() <= base.length() + 1 + ROLLED_SUFFIX.length())
+                return null;
+            String[] parts = name.substring(base.length() + 1, name.length() - ROLLED_SUFFIX.length()).split("\\.");
+            if (parts.length != 2)
+                return null;
+            try {
+                return new RolledFile(candidate, LocalDate.parse(parts[0]), Integer.parseInt(parts[1]),
+                        Files.size(candidate));
+            } catch (DateTimeParseException | NumberFormatException | IOException e) {
+                return null;
+            }
+        }
+    }
+
+    private String baseName() {
+        String name = path.getFileName().toString();
+        return name.endsWith(ROLLED_SUFFIX) ? name.substring(0, name.length() - ROLLED_SUFFIX.length()) : name;
+    }
+
+    /**
+     * Reopens the file after a failed write, so the next batch gets a fresh
+     * channel.
+     */
+    private void reopen() {
+        buffer.clear();
+        closeChannel();
+    }
+
+    private void close() {
+        try {
+            if (channel != null) {
+                put(encoder.footerBytes());
+                flushBuffer();
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            addWarn("Cannot flush log file " + path, e);
+        }
+        closeChannel();
+    }
+
+    private void closeChannel() {
+        if (channel == null)
+            return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            addWarn("Cannot close log file " + path, e);
+        }
+        channel = null;
+    }
+}
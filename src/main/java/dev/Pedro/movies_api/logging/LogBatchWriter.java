@@ -0,0 +1,78 @@
+package dev.Pedro.movies_api.logging;
+
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.model.LogEvent;
+import dev.Pedro.movies_api.service.LoggingService;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Pipelined writer that hands drained log batches to
+ * {@link LoggingService#saveLogs(List)} while keeping a bounded number of
+ * batches in flight.
+ * <p>
+ * Each batch takes a permit from a window sized by
+ * {@code logging.max-in-flight-batches} and gives it back once its
+ * {@code CompletableFuture} completes, either normally or through the
+ * fallback. When the window is full, {@link #write(List)} blocks the drain
+ * thread, which slows draining down and lets the buffer absorb the burst
+ * instead of piling up concurrent writes against MongoDB.
+ * </p>
+ */
+@Component
+public class LogBatchWriter {
+
+    private final LoggingService loggingService;
+
+    /**
+     * Permits for the batches that may be in flight at the same time.
+     */
+    private final Semaphore window;
+
+    private final int maxInFlight;
+
+    /**
+     * Creates the writer with a window sized from the logging configuration.
+     *
+     * @param loggingService service responsible for persisting logs to MongoDB
+     * @param config         configuration values such as the in-flight window
+     */
+    public LogBatchWriter(LoggingService loggingService, LoggingVariables config) {
+        this.loggingService = loggingService;
+        this.maxInFlight = Math.max(1, config.getMaxInFlightBatches());
+        this.window = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Submits a batch for persistence, waiting for a free slot in the in-flight
+     * window first.
+     *
+     * @param batch the log events to persist
+     * @return a future completed once the batch is persisted or handed to the
+     *         fallback
+     * @throws InterruptedException if the calling thread is interrupted while
+     *                              waiting for a free slot
+     */
+    public CompletableFuture<Void> write(List<LogEvent> batch) throws InterruptedException {
+        window.acquire();
+        try {
+            return loggingService.saveLogs(batch).whenComplete((result, error) -> window.release());
+        } catch (RuntimeException e) {
+            window.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of batches currently being persisted.
+     *
+     * @return the number of in-flight batches
+     */
+    public int inFlight() {
+        return maxInFlight - window.availablePermits();
+    }
+}
@@ -0,0 +1,166 @@
+package dev.Pedro.movies_api.logging;
+
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.model.LogEvent;
+
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the log events dropped by the MongoDB log pipeline without ever going
+ * back through the logging system.
+ * <p>
+ * Reporting a drop with {@code log.error(...)} from inside the appender sends
+ * the report to the same full appender, which turns an overload into a
+ * feedback loop. Instead, drops are recorded in striped {@link LongAdder}
+ * counters, by level and by logger, and the drain thread turns them into a
+ * single summary {@link LogEvent} every
+ * {@code logging.drop-summary-interval-ms}. The cumulative counts are also
+ * published as the {@code logging.buffer.dropped} metric.
+ * </p>
+ */
+@Component
+public class LogDropAccounting {
+
+    /**
+     * Levels tracked by the drop counters, in ascending severity.
+     */
+    static final String[] LEVELS = { "TRACE", "DEBUG", "INFO", "WARN", "ERROR" };
+
+    /**
+     * Loggers counted by name in a summary; further loggers are grouped.
+     */
+    private static final int MAX_TRACKED_LOGGERS = 256;
+    private static final int SUMMARY_TOP_LOGGERS = 10;
+    private static final String OTHER_LOGGERS = "<other>";
+
+    private final LongAdder[] total = new LongAdder[LEVELS.length];
+    private final LongAdder[] interval = new LongAdder[LEVELS.length];
+    private final Map<String, LongAdder> intervalByLogger = new ConcurrentHashMap<>();
+
+    private final long intervalNanos;
+    private long lastSummaryNanos = System.nanoTime();
+
+    /**
+     * Creates the accounting with the configured summary interval.
+     *
+     * @param config configuration values such as the summary interval
+     */
+    public LogDropAccounting(LoggingVariables config) {
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getDropSummaryIntervalMs());
+        for (int i = 0; i < LEVELS.length; i++) {
+            total[i] = new LongAdder();
+            interval[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one dropped log event. Never logs and never blocks.
+     *
+     * @param logEvent the event that was dropped
+     */
+    public void record(LogEvent logEvent) {
+        int index = levelIndex(logEvent.getLevel());
+        total[index].increment();
+        interval[index].increment();
+
+        String logger = logEvent.getLogger() == null ? OTHER_LOGGERS : logEvent.getLogger();
+        LongAdder counter = intervalByLogger.get(logger);
+        if (counter == null) {
+            String key = intervalByLogger.size() < MAX_TRACKED_LOGGERS ? logger : OTHER_LOGGERS;
+            counter = intervalByLogger.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * Returns the cumulative number of dropped events per level.
+     *
+     * @return an ordered map from level name to drop count
+     */
+    public Map<String, Long> getDroppedCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < LEVELS.length; i++) {
+            counts.put(LEVELS[i], total[i].sum());
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the cumulative number of dropped events for one level.
+     *
+     * @param level the level name, such as {@code "DEBUG"}
+     * @return the drop count for that level
+     */
+    public long getDroppedCount(String level) {
+        return total[levelIndex(level)].sum();
+    }
+
+    /**
+     * Builds the drop summary for the interval that just ended, if the
+     * interval is over and anything was dropped. Meant to be called from the
+     * drain thread only.
+     *
+     * @return a {@code WARN} summary event, or {@code null} if there is nothing
+     *         to report yet
+     */
+    public LogEvent summarizeIfDue() {
+        long now = System.nanoTime();
+        if (now - lastSummaryNanos < intervalNanos)
+            return null;
+        lastSummaryNanos = now;
+
+        long dropped = 0;
+        Map<String, Long> byLevel = new LinkedHashMap<>();
+        for (int i = 0; i < LEVELS.length; i++) {
+            long count = interval[i].sumThenReset();
+            if (count > 0)
+                byLevel.put(LEVELS[i], count);
+            dropped += count;
+        }
+        if (dropped == 0)
+            return null;
+
+        // Reset each counter as it is read, so drops recorded meanwhile are
+        // kept for the next summary; loggers idle for a whole interval free
+        // their slot
+        Map<String, Long> byLogger = new LinkedHashMap<>();
+        intervalByLogger.forEach((logger, counter) -> {
+            long count = counter.sumThenReset();
+            if (count > 0) {
+                byLogger.put(logger, count);
+            } else {
+                intervalByLogger.remove(logger, counter);
+            }
+        });
+        String topLoggers = byLogger.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(SUMMARY_TOP_LOGGERS)
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining(", ", "{", "}"));
+
+        String message = String.format("%d log events dropped in the last %ds - by level: %s - by logger: %s",
+                dropped, TimeUnit.NANOSECONDS.toSeconds(intervalNanos), byLevel, topLoggers);
+        return new LogEvent(ObjectId.get(), "WARN", LogDropAccounting.class.getName(),
+                Thread.currentThread().getName(), message);
+    }
+
+    private static int levelIndex(String level) {
+        if (level == null)
+            return 2;
+        return switch (level) {
+            case "TRACE" -> 0;
+            case "DEBUG" -> 1;
+            case "WARN" -> 3;
+            case "ERROR" -> 4;
+            default -> 2;
+        };
+    }
+}
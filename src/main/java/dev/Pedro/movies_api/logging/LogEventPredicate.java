@@ -0,0 +1,89 @@
+package dev.Pedro.movies_api.logging;
+
+import dev.Pedro.movies_api.dto.request.SearchLogRequest;
+import dev.Pedro.movies_api.logging.codec.LogMessageTokens;
+import dev.Pedro.movies_api.model.LogEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory counterpart of the MongoDB filters built from a
+ * {@link SearchLogRequest}, for matching log events that have not been
+ * queried from the database.
+ * <p>
+ * The semantics follow the stored search: level equality, timestamp range,
+ * case-insensitive thread regex, logger prefix, MDC subset, and message
+ * keywords as tokens or as a case-insensitive regex when
+ * {@code messageRegex} is set.
+ * </p>
+ */
+public final class LogEventPredicate implements Predicate<LogEvent> {
+
+    private final String level;
+    private final LocalDateTime after;
+    private final LocalDateTime before;
+    private final Pattern thread;
+    private final String loggerPrefix;
+    private final Map<String, String> mdc;
+    private final List<String> tokens;
+    private final Pattern message;
+
+    private LogEventPredicate(SearchLogRequest request) {
+        this.level = isSet(request.getLevel()) ? request.getLevel().toUpperCase() : null;
+        this.after = request.getTimestampAfter();
+        this.before = request.getTimestampBefore();
+        this.thread = isSet(request.getThread())
+                ? Pattern.compile(request.getThread(), Pattern.CASE_INSENSITIVE)
+                : null;
+        this.loggerPrefix = isSet(request.getLogger()) ? request.getLogger() : null;
+        this.mdc = request.getMdc() != null && !request.getMdc().isEmpty() ? request.getMdc() : null;
+
+        List<String> keywordTokens = isSet(request.getMessageKeywords())
+                ? LogMessageTokens.of(request.getMessageKeywords())
+                : List.of();
+        boolean regex = isSet(request.getMessageKeywords()) && (request.isMessageRegex() || keywordTokens.isEmpty());
+        this.message = regex ? Pattern.compile(request.getMessageKeywords(), Pattern.CASE_INSENSITIVE) : null;
+        this.tokens = regex || keywordTokens.isEmpty() ? null : keywordTokens;
+    }
+
+    /**
+     * Builds the predicate matching the filters of a search request. The
+     * pagination fields are ignored.
+     *
+     * @param request the search criteria
+     * @return the matching predicate
+     * @throws java.util.regex.PatternSyntaxException if the thread or message
+     *                                                regex is invalid
+     */
+    public static LogEventPredicate from(SearchLogRequest request) {
+        return new LogEventPredicate(request);
+    }
+
+    @Override
+    public boolean test(LogEvent event) {
+        if (level != null && !level.equals(event.getLevel()))
+            return false;
+        LocalDateTime time = event.getLocalDateTime();
+        if (after != null && (time == null || time.isBefore(after)))
+            return false;
+        if (before != null && (time == null || time.isAfter(before)))
+            return false;
+        if (thread != null && (event.getThread() == null || !thread.matcher(event.getThread()).find()))
+            return false;
+        if (loggerPrefix != null && (event.getLogger() == null || !event.getLogger().startsWith(loggerPrefix)))
+            return false;
+        if (mdc != null && (event.getMdc() == null || !event.getMdc().entrySet().containsAll(mdc.entrySet())))
+            return false;
+        if (message != null && (event.getMessage() == null || !message.matcher(event.getMessage()).find()))
+            return false;
+        return tokens == null || LogMessageTokens.of(event.getMessage()).containsAll(tokens);
+    }
+
+    private static boolean isSet(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,32 @@
+package dev.Pedro.movies_api.logging;
+
+/**
+ * Policies applied by {@link MongoLogBuffer} when a log event arrives while
+ * its lane of the buffer is full or close to full.
+ */
+public enum LogOverflowPolicy {
+
+    /**
+     * Rejects the incoming event. It then goes to the spill store, or is dropped
+     * if that is unavailable.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Evicts the oldest queued event to make room for the incoming one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Once the lane passes its high-water mark, keeps only a random fraction of
+     * the incoming events; rejects the rest as {@link #DROP_NEWEST} does when
+     * the lane is full.
+     */
+    SAMPLE,
+
+    /**
+     * Makes the logging thread wait up to a timeout for free space before
+     * rejecting the event.
+     */
+    BLOCK
+}
@@ -0,0 +1,69 @@
+package dev.Pedro.movies_api.logging;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint ({@code /actuator/logpipeline}) that shows the live
+ * settings and state of the MongoDB log pipeline.
+ * <p>
+ * It reports the batch size and linger time currently chosen by
+ * {@link AdaptiveBatchController}, the observed write latency and error rate,
+ * the circuit breaker state, buffer occupancy and drop counts. Like every
+ * actuator endpoint, it has to be listed in
+ * {@code management.endpoints.web.exposure.include} and is restricted to
+ * admins.
+ * </p>
+ */
+@Component
+@Endpoint(id = "logpipeline")
+public class LogPipelineEndpoint {
+
+    private final AdaptiveBatchController batchController;
+    private final MongoLogBuffer buffer;
+    private final LogBatchWriter batchWriter;
+    private final LogDropAccounting dropAccounting;
+    private final MongoCircuitGate circuitGate;
+
+    /**
+     * Creates the endpoint for the given pipeline components.
+     *
+     * @param batchController the adaptive batch controller
+     * @param buffer          the log buffer
+     * @param batchWriter     the batch writer
+     * @param dropAccounting  the drop counters
+     * @param circuitGate     the circuit breaker view
+     */
+    public LogPipelineEndpoint(AdaptiveBatchController batchController, MongoLogBuffer buffer,
+            LogBatchWriter batchWriter, LogDropAccounting dropAccounting, MongoCircuitGate circuitGate) {
+        this.batchController = batchController;
+        this.buffer = buffer;
+        this.batchWriter = batchWriter;
+        this.dropAccounting = dropAccounting;
+        this.circuitGate = circuitGate;
+    }
+
+    /**
+     * Returns a snapshot of the log pipeline.
+     *
+     * @return the pipeline settings and counters
+     */
+    @ReadOperation
+    public Map<String, Object> pipeline() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("batchSize", batchController.getBatchSize());
+        snapshot.put("lingerMs", batchController.getLingerMs());
+        snapshot.put("averageWriteLatencyMs", batchController.getAverageLatencyMs());
+        snapshot.put("writeErrorRate", batchController.getErrorRate());
+        snapshot.put("circuitBreaker", circuitGate.getState());
+        snapshot.put("bufferedEvents", buffer.size());
+        snapshot.put("bufferedPriorityEvents", buffer.prioritySize());
+        snapshot.put("inFlightBatches", batchWriter.inFlight());
+        snapshot.put("droppedEvents", dropAccounting.getDroppedCounts());
+        return snapshot;
+    }
+}
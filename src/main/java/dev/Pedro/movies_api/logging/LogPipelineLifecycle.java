@@ -0,0 +1,64 @@
+package dev.Pedro.movies_api.logging;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Flushes the Mongo log pipeline when the application context closes.
+ *
+ * <p>
+ * The component runs in a lifecycle phase below the web server's, so with
+ * {@code server.shutdown=graceful} in-flight requests complete, and their logs
+ * reach the buffer, before the pipeline is drained. The drain itself is bounded
+ * by {@code logging.shutdown.deadline-ms}; see
+ * {@link MongoLogAppender#drainOnShutdown()}. Mongo clients are destroyed with
+ * the bean factory, which happens after all lifecycle phases have stopped.
+ * </p>
+ */
+@Component
+@Slf4j
+public class LogPipelineLifecycle implements SmartLifecycle {
+
+    /**
+     * Below the web server graceful shutdown and web server phases, so this
+     * component stops after them.
+     */
+    public static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final MongoLogAppender mongoAppender;
+
+    private volatile boolean running = false;
+
+    /**
+     * @param mongoAppender the appender whose buffer is flushed on shutdown
+     */
+    public LogPipelineLifecycle(MongoLogAppender mongoAppender) {
+        this.mongoAppender = mongoAppender;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        long startedAt = System.currentTimeMillis();
+        int flushed = mongoAppender.drainOnShutdown();
+        running = false;
+        log.info("[LogPipelineLifecycle] Flushed {} log events to MongoDB in {} ms", flushed,
+                System.currentTimeMillis() - startedAt);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -0,0 +1,133 @@
+package dev.Pedro.movies_api.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Publishes the state of the MongoDB log pipeline as Micrometer meters, so it
+ * can be read through the {@code /actuator/metrics} endpoint.
+ * <p>
+ * Registered meters:
+ * </p>
+ * <ul>
+ * <li>{@code logging.buffer.size} - events waiting in each buffer lane</li>
+ * <li>{@code logging.buffer.dropped} - events dropped, tagged by level</li>
+ * <li>{@code logging.batches.in-flight} - batches being written to
+ * MongoDB</li>
+ * <li>{@code logging.batch.size} and {@code logging.batch.linger} - the
+ * values currently chosen by {@link AdaptiveBatchController}</li>
+ * <li>{@code logging.file.queue.size} - events waiting for the writer thread
+ * of each {@link AsyncFileAppender}, tagged by appender</li>
+ * <li>{@code logging.file.discarded} - events discarded by each
+ * {@link AsyncFileAppender}, tagged by appender and level</li>
+ * </ul>
+ */
+@Component
+public class LogPipelineMetrics implements MeterBinder {
+
+    private final MongoLogBuffer buffer;
+    private final LogBatchWriter batchWriter;
+    private final LogDropAccounting dropAccounting;
+    private final AdaptiveBatchController batchController;
+
+    /**
+     * Creates the binder for the given pipeline components.
+     *
+     * @param buffer          the log buffer to observe
+     * @param batchWriter     the batch writer to observe
+     * @param dropAccounting  the drop counters to publish
+     * @param batchController the adaptive batch controller to observe
+     */
+    public LogPipelineMetrics(MongoLogBuffer buffer, LogBatchWriter batchWriter,
+            LogDropAccounting dropAccounting, AdaptiveBatchController batchController) {
+        this.buffer = buffer;
+        this.batchWriter = batchWriter;
+        this.dropAccounting = dropAccounting;
+        this.batchController = batchController;
+    }
+
+    /**
+     * Registers the log pipeline meters.
+     *
+     * @param registry the registry to bind the meters to
+     */
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("logging.buffer.size", buffer, MongoLogBuffer::prioritySize)
+                .tag("lane", "priority")
+                .description("Log events waiting in the priority lane")
+                .register(registry);
+        Gauge.builder("logging.buffer.size", buffer, b -> b.size() - b.prioritySize())
+                .tag("lane", "standard")
+                .description("Log events waiting in the standard lane")
+                .register(registry);
+
+        for (String level : dropAccounting.getDroppedCounts().keySet()) {
+            FunctionCounter.builder("logging.buffer.dropped", dropAccounting, d -> d.getDroppedCount(level))
+                    .tag("level", level)
+                    .description("Log events dropped by the log pipeline")
+                    .register(registry);
+        }
+
+        Gauge.builder("logging.batches.in-flight", batchWriter, LogBatchWriter::inFlight)
+                .description("Log batches being written to MongoDB")
+                .register(registry);
+
+        Gauge.builder("logging.batch.size", batchController, AdaptiveBatchController::getBatchSize)
+                .description("Current size of the log batches")
+                .register(registry);
+        Gauge.builder("logging.batch.linger", batchController, AdaptiveBatchController::getLingerMs)
+                .description("Current linger time of the log batches")
+                .baseUnit("milliseconds")
+                .register(registry);
+
+        for (AsyncFileAppender appender : fileAppenders()) {
+            Gauge.builder("logging.file.queue.size", appender, AsyncFileAppender::getQueueDepth)
+                    .tag("appender", appender.getName())
+                    .description("Log events waiting to be written to the log file")
+                    .register(registry);
+            for (String level : appender.getDiscardedCounts().keySet()) {
+                FunctionCounter.builder("logging.file.discarded", appender, a -> a.getDiscardedCount(level))
+                        .tag("appender", appender.getName())
+                        .tag("level", level)
+                        .description("Log events discarded by the asynchronous file appender")
+                        .register(registry);
+            }
+        }
+    }
+
+    /**
+     * Finds the {@link AsyncFileAppender} instances attached to Logback loggers
+     * by {@code logback-spring.xml}.
+     *
+     * @return the appenders; empty if Logback is not the logging backend
+     */
+    private static Set<AsyncFileAppender> fileAppenders() {
+        Set<AsyncFileAppender> appenders = new LinkedHashSet<>();
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context))
+            return appenders;
+        for (Logger logger : context.getLoggerList()) {
+            Iterator<Appender<ILoggingEvent>> it = logger.iteratorForAppenders();
+            while (it.hasNext()) {
+                if (it.next() instanceof AsyncFileAppender appender)
+                    appenders.add(appender);
+            }
+        }
+        return appenders;
+    }
+}
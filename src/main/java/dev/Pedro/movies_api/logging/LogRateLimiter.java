@@ -0,0 +1,143 @@
+package dev.Pedro.movies_api.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token-bucket rate limiter placed in front of {@link MongoLogAppender}.
+ * <p>
+ * Every event has to take a token from two buckets: one for its logger and one
+ * for its message template (the unformatted SLF4J pattern, such as
+ * {@code "Received request to GET the movie with imdbId {}"}). When a bucket is
+ * empty, the event is still kept with probability
+ * {@code logging.rate-limit.sample-probability}; otherwise it is suppressed.
+ * The number of suppressed events is attached to the next event emitted for
+ * the same template, so the volume stays visible in MongoDB while the number
+ * of documents stays roughly constant under abusive traffic. Suppressed
+ * counts are kept for at most {@code MAX_TEMPLATES} templates; past that, they
+ * are counted per logger and attached to the next event of the logger.
+ * </p>
+ * <p>
+ * Per-logger rates can be overridden with
+ * {@code logging.rate-limit.loggers.<logger-name>=<permits-per-second>}. Only
+ * the MongoDB sink is limited; console and file output are unaffected.
+ * </p>
+ */
+@Component
+public class LogRateLimiter {
+
+    /**
+     * Returned by {@link #admit(ILoggingEvent)} for suppressed events.
+     */
+    public static final long SUPPRESSED = -1;
+
+    /**
+     * Template buckets kept at most; events of further templates are only
+     * limited by their logger bucket.
+     */
+    private static final int MAX_TEMPLATES = 10_000;
+
+    private final LoggingVariables.RateLimit config;
+
+    private final Map<String, TokenBucket> loggerBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> templateBuckets = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> suppressedByTemplate = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> suppressedByLogger = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the limiter with the configured rates.
+     *
+     * @param config configuration values holding the rate limit settings
+     */
+    public LogRateLimiter(LoggingVariables config) {
+        this.config = config.getRateLimit();
+    }
+
+    /**
+     * Decides whether a logging event may go to the MongoDB sink.
+     *
+     * @param event the logging event
+     * @return {@link #SUPPRESSED} if the event must be skipped; otherwise the
+     *         number of events of the same template suppressed since the last
+     *         one that was emitted
+     */
+    public long admit(ILoggingEvent event) {
+        if (!config.isEnabled())
+            return 0;
+
+        String logger = event.getLoggerName();
+        String templateKey = logger + '|' + event.getMessage();
+
+        TokenBucket loggerBucket = loggerBuckets.computeIfAbsent(logger, this::newLoggerBucket);
+        TokenBucket templateBucket = templateBuckets.get(templateKey);
+        if (templateBucket == null && templateBuckets.size() < MAX_TEMPLATES) {
+            templateBucket = templateBuckets.computeIfAbsent(templateKey,
+                    key -> new TokenBucket(config.getTemplatePermitsPerSecond(), config.getTemplateBurst()));
+        }
+
+        boolean allowed = (templateBucket == null || templateBucket.tryAcquire()) && loggerBucket.tryAcquire();
+        if (!allowed && ThreadLocalRandom.current().nextDouble() >= config.getSampleProbability()) {
+            suppressedCounter(logger, templateKey).increment();
+            return SUPPRESSED;
+        }
+
+        LongAdder suppressed = suppressedByTemplate.get(templateKey);
+        LongAdder loggerSuppressed = suppressedByLogger.get(logger);
+        return (suppressed == null ? 0 : suppressed.sumThenReset())
+                + (loggerSuppressed == null ? 0 : loggerSuppressed.sumThenReset());
+    }
+
+    /**
+     * Returns the counter of a suppressed event: its template's, or its
+     * logger's once {@code MAX_TEMPLATES} templates have a counter.
+     */
+    private LongAdder suppressedCounter(String logger, String templateKey) {
+        LongAdder counter = suppressedByTemplate.get(templateKey);
+        if (counter != null)
+            return counter;
+        if (suppressedByTemplate.size() >= MAX_TEMPLATES)
+            return suppressedByLogger.computeIfAbsent(logger, key -> new LongAdder());
+        return suppressedByTemplate.computeIfAbsent(templateKey, key -> new LongAdder());
+    }
+
+    private TokenBucket newLoggerBucket(String logger) {
+        Double permits = config.getLoggers().get(logger);
+        double rate = permits != null ? permits : config.getLoggerPermitsPerSecond();
+        return new TokenBucket(rate, Math.max(config.getLoggerBurst(), rate));
+    }
+
+    /**
+     * A token bucket refilled continuously at a fixed rate.
+     */
+    private static final class TokenBucket {
+
+        private final double permitsPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        TokenBucket(double permitsPerSecond, double capacity) {
+            this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = capacity;
+            this.tokens = capacity;
+        }
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+            lastRefill = now;
+            if (tokens < 1)
+                return false;
+            tokens--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package dev.Pedro.movies_api.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collapses repeated log events in front of {@link MongoLogBuffer}.
+ * <p>
+ * Events are fingerprinted by logger, level, message template and exception
+ * class. The first event of a fingerprint is emitted and opens a window of
+ * {@code logging.repeat.window-ms}; further events with the same fingerprint
+ * inside the window are only counted. Once the window is over, the drain
+ * thread collects a {@link Repeat} for it, stored as a single summary event
+ * with the repeat count and the time of the first and last occurrence. A storm
+ * of identical errors therefore costs two events per window, both in the buffer
+ * and in MongoDB.
+ * </p>
+ * <p>
+ * At most {@code logging.repeat.max-fingerprints} windows are open at once;
+ * events of further fingerprints are emitted as they are.
+ * </p>
+ */
+@Component
+public class LogRepeatAggregator {
+
+    private final LoggingVariables.Repeat config;
+    private final long windowNanos;
+
+    private final Map<Fingerprint, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Repeats of windows closed by a later event, waiting for the drain thread.
+     */
+    private final Queue<Repeat> closed = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Identity of a repeated event.
+     */
+    private record Fingerprint(String logger, String level, String template, String exceptionClass) {
+    }
+
+    /**
+     * Events of one fingerprint repeated during a window.
+     *
+     * @param first      the event that opened the window
+     * @param count      the number of repeats after it
+     * @param firstSeen  when the first event was logged
+     * @param lastSeen   when the last repeat was logged
+     */
+    public record Repeat(ILoggingEvent first, long count, Instant firstSeen, Instant lastSeen) {
+    }
+
+    /**
+     * Open window of a fingerprint. Only changed under the map's lock for its
+     * key.
+     */
+    private static final class Window {
+        private final ILoggingEvent first;
+        private final long openedNanos;
+        private long count;
+        private Instant lastSeen;
+
+        private Window(ILoggingEvent first, long openedNanos) {
+            this.first = first;
+            this.openedNanos = openedNanos;
+        }
+
+        private Repeat toRepeat() {
+            return new Repeat(first, count, first.getInstant(), lastSeen);
+        }
+    }
+
+    /**
+     * Creates the aggregator with the configured window.
+     *
+     * @param config configuration values holding the repeat settings
+     */
+    public LogRepeatAggregator(LoggingVariables config) {
+        this.config = config.getRepeat();
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(this.config.getWindowMs());
+    }
+
+    /**
+     * Decides whether a logging event is emitted or counted as a repeat.
+     *
+     * @param event the logging event
+     * @return {@code true} if the event must be emitted, {@code false} if it
+     *         was counted as a repeat of an earlier one
+     */
+    public boolean admit(ILoggingEvent event) {
+        if (!config.isEnabled())
+            return true;
+
+        IThrowableProxy throwable = event.getThrowableProxy();
+        Fingerprint fingerprint = new Fingerprint(event.getLoggerName(), event.getLevel().toString(),
+                event.getMessage(), throwable != null ? throwable.getClassName() : null);
+        if (!windows.containsKey(fingerprint) && windows.size() >= config.getMaxFingerprints())
+            return true;
+
+        long now = System.nanoTime();
+        boolean[] emit = { false };
+        windows.compute(fingerprint, (key, window) -> {
+            if (window != null && now - window.openedNanos < windowNanos) {
+                window.count++;
+                window.lastSeen = event.getInstant();
+                return window;
+            }
+            if (window != null && window.count > 0)
+                closed.add(window.toRepeat());
+            emit[0] = true;
+            // Kept past this call: capture the thread name and MDC now
+            event.prepareForDeferredProcessing();
+            return new Window(event, now);
+        });
+        return emit[0];
+    }
+
+    /**
+     * Closes the windows that are over and returns their repeats. Called by the
+     * drain thread.
+     *
+     * @param all whether to close every window, whether it is over or not, as
+     *            on shutdown
+     * @return the repeats of the closed windows; windows without repeats are
+     *         dropped silently
+     */
+    public List<Repeat> collect(boolean all) {
+        List<Repeat> repeats = new ArrayList<>();
+        Repeat repeat;
+        while ((repeat = closed.poll()) != null) {
+            repeats.add(repeat);
+        }
+        if (windows.isEmpty())
+            return repeats;
+
+        long now = System.nanoTime();
+        for (Fingerprint fingerprint : windows.keySet()) {
+            windows.computeIfPresent(fingerprint, (key, window) -> {
+                if (!all && now - window.openedNanos < windowNanos)
+                    return window;
+                if (window.count > 0)
+                    repeats.add(window.toRepeat());
+                return null;
+            });
+        }
+        return repeats;
+    }
+}
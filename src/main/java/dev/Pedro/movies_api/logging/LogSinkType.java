@@ -0,0 +1,24 @@
+package dev.Pedro.movies_api.logging;
+
+/**
+ * Destinations of the log pipeline, selected with {@code logging.sink.type}.
+ */
+public enum LogSinkType {
+
+    /**
+     * The MongoDB log collection, searchable through the logging API.
+     */
+    MONGO,
+
+    /**
+     * Append-only segment files on the local disk, under
+     * {@code logging.sink.directory}.
+     */
+    FILE,
+
+    /**
+     * Nowhere: batches are counted and discarded, to measure the cost of the
+     * pipeline alone.
+     */
+    NOOP
+}
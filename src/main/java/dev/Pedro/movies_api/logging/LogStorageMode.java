@@ -0,0 +1,25 @@
+package dev.Pedro.movies_api.logging;
+
+/**
+ * Layouts of the MongoDB collection that stores log events, selected with
+ * {@code logging.storage.mode}.
+ */
+public enum LogStorageMode {
+
+    /**
+     * A regular collection with one document per event and flat fields.
+     */
+    STANDARD,
+
+    /**
+     * A time-series collection with {@code localDateTime} as time field and
+     * level, logger and thread grouped under the {@code meta} field.
+     */
+    TIME_SERIES,
+
+    /**
+     * One regular collection per UTC day, named {@code logEvents_yyyyMMdd}.
+     * Retention drops whole collections.
+     */
+    DAILY
+}
@@ -0,0 +1,261 @@
+package dev.Pedro.movies_api.logging;
+
+import dev.Pedro.movies_api.exception.InvalidLogSearchRequestException;
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.model.LogEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * In-memory fan-out of live log events to Server-Sent Events subscribers.
+ * <p>
+ * The {@link MongoLogAppender} drain thread hands every batch to
+ * {@link #publish(List)} before writing it, so tailing costs MongoDB nothing.
+ * Each event is published once, a batch requeued after a failed write is not
+ * sent again. Each subscriber has its own filter and a queue of
+ * {@code logging.tail.buffer-size} events; publishing only offers to those
+ * queues and never blocks the drain thread.
+ * </p>
+ * <p>
+ * Every {@code logging.tail.flush-interval-ms}, a scheduler starts a send task
+ * for each subscriber with queued events on the {@code logTailSendExecutor}.
+ * A subscriber has at most one send task at a time, so a client that reads
+ * slowly never delays the others: its queue keeps filling while its send
+ * runs, and once it is full, the subscriber has fallen behind and is
+ * disconnected.
+ * </p>
+ */
+@Component
+@Slf4j
+public class LogTailBroadcaster implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Connection slots in use, reserved before a subscriber is registered so
+     * concurrent subscribes never exceed {@code logging.tail.max-subscribers}.
+     */
+    private final AtomicInteger connected = new AtomicInteger();
+    private final ScheduledExecutorService executor;
+    private final Executor sendExecutor;
+    private final LoggingVariables.Tail config;
+
+    /**
+     * A connected client with its filter and pending events.
+     */
+    private static final class Subscriber {
+        private final Predicate<LogEvent> filter;
+        private final BlockingQueue<LogEvent> queue;
+        private final SseEmitter emitter;
+        private volatile boolean overflowed = false;
+
+        /**
+         * Whether a send task of this subscriber is queued or running.
+         */
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        /**
+         * Whether the connection slot of this subscriber was given back.
+         */
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Subscriber(Predicate<LogEvent> filter, int capacity, SseEmitter emitter) {
+            this.filter = filter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.emitter = emitter;
+        }
+    }
+
+    /**
+     * Creates the broadcaster.
+     *
+     * @param executor     the scheduler starting the send tasks
+     * @param sendExecutor the executor sending queued events to subscribers
+     * @param config       configuration values holding the tail settings
+     */
+    public LogTailBroadcaster(@Qualifier("logTailExecutor") ScheduledExecutorService executor,
+            @Qualifier("logTailSendExecutor") Executor sendExecutor, LoggingVariables config) {
+        this.executor = executor;
+        this.sendExecutor = sendExecutor;
+        this.config = config.getTail();
+    }
+
+    /**
+     * Schedules the send task once the application is ready.
+     *
+     * @param event the application ready event
+     */
+    @Override
+    public void onApplicationEvent(@NonNull ApplicationReadyEvent event) {
+        executor.scheduleWithFixedDelay(this::flush, config.getFlushIntervalMs(), config.getFlushIntervalMs(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers a new subscriber.
+     *
+     * @param filter the events to send to it
+     * @return the emitter streaming the events
+     * @throws InvalidLogSearchRequestException if
+     *                                          {@code logging.tail.max-subscribers}
+     *                                          clients are already connected
+     */
+    public SseEmitter subscribe(Predicate<LogEvent> filter) {
+        int count;
+        do {
+            count = connected.get();
+            if (count >= config.getMaxSubscribers())
+                throw new InvalidLogSearchRequestException(
+                        "Too many live log tails, the maximum is " + config.getMaxSubscribers());
+        } while (!connected.compareAndSet(count, count + 1));
+
+        SseEmitter emitter = new SseEmitter(config.getTimeoutMs());
+        Subscriber subscriber = new Subscriber(filter, config.getBufferSize(), emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(t -> remove(subscriber));
+        subscribers.add(subscriber);
+        log.info("[LogTailBroadcaster] Live log tail opened, {} connected", connected.get());
+        return emitter;
+    }
+
+    /**
+     * Returns the number of connected subscribers.
+     *
+     * @return the subscriber count
+     */
+    public int subscriberCount() {
+        return connected.get();
+    }
+
+    /**
+     * Unregisters a subscriber and gives its connection slot back, once.
+     */
+    private void remove(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        if (subscriber.released.compareAndSet(false, true))
+            connected.decrementAndGet();
+    }
+
+    /**
+     * Queues the events of a batch that were not published yet for every
+     * subscriber whose filter they match. Never blocks.
+     *
+     * @param batch the log events drained from the buffer
+     */
+    public void publish(List<LogEvent> batch) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.overflowed)
+                continue;
+            for (LogEvent event : batch) {
+                if (event.isPublished() || !subscriber.filter.test(event))
+                    continue;
+                if (!subscriber.queue.offer(event)) {
+                    subscriber.overflowed = true;
+                    break;
+                }
+            }
+        }
+        for (LogEvent event : batch) {
+            event.setPublished(true);
+        }
+    }
+
+    /**
+     * Starts a send task for every subscriber with queued events or that fell
+     * behind, unless its previous task is still running.
+     */
+    void flush() {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.overflowed && subscriber.queue.isEmpty())
+                continue;
+            if (!subscriber.sending.compareAndSet(false, true))
+                continue;
+            try {
+                sendExecutor.execute(() -> send(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.sending.set(false);
+            }
+        }
+    }
+
+    /**
+     * Sends the queued events of a subscriber, or disconnects it if it fell
+     * behind or went away.
+     */
+    private void send(Subscriber subscriber) {
+        try {
+            if (subscriber.overflowed) {
+                disconnect(subscriber, "fell behind");
+                return;
+            }
+            List<LogEvent> events = new ArrayList<>(subscriber.queue.size());
+            subscriber.queue.drainTo(events);
+            for (LogEvent event : events) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .name("log")
+                        .data(toView(event), MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            remove(subscriber);
+        } finally {
+            subscriber.sending.set(false);
+        }
+    }
+
+    private void disconnect(Subscriber subscriber, String reason) {
+        remove(subscriber);
+        try {
+            subscriber.emitter.send(SseEmitter.event().name("disconnect").data(reason));
+        } catch (IOException | IllegalStateException e) {
+            // Already gone
+        }
+        subscriber.emitter.complete();
+        log.info("[LogTailBroadcaster] Live log tail closed: {}, {} connected", reason, connected.get());
+    }
+
+    /**
+     * Converts a log event to the JSON shape returned by log search.
+     */
+    private static Map<String, Object> toView(LogEvent event) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("_id", event.getLogId() != null ? event.getLogId().toHexString() : null);
+        view.put("localDateTime", event.getLocalDateTime());
+        view.put("level", event.getLevel());
+        view.put("logger", event.getLogger());
+        view.put("thread", event.getThread());
+        view.put("message", event.getMessage());
+        view.put("mdc", event.getMdc());
+        if (event.getSuppressed() > 0)
+            view.put("suppressed", event.getSuppressed());
+        if (event.getRepeatCount() > 0) {
+            view.put("repeatCount", event.getRepeatCount());
+            view.put("firstSeen", event.getFirstSeen());
+            view.put("lastSeen", event.getLastSeen());
+        }
+        return view;
+    }
+}
@@ -0,0 +1,143 @@
+package dev.Pedro.movies_api.logging;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks the state of the {@code mongoCB} circuit breaker through the
+ * Resilience4j event publisher, so the log pipeline can react to it without
+ * polling.
+ * <p>
+ * The drain thread waits on this gate while the breaker is open instead of
+ * pulling batches that the fallback would immediately requeue. When the
+ * breaker turns half-open, the drain loop sends one small probe batch at a
+ * time, and when it closes, draining resumes at full speed.
+ * </p>
+ * <p>
+ * While the breaker is open, nothing else calls it, and Resilience4j only
+ * leaves the open state on a permission request. The wait therefore asks for
+ * a permission every {@value #PROBE_INTERVAL_MS} ms and hands it straight
+ * back, which moves the breaker to half-open once
+ * {@code wait-duration-in-open-state} has passed, even without
+ * {@code automatic-transition-from-open-to-half-open-enabled}.
+ * </p>
+ */
+@Component
+@Slf4j
+public class MongoCircuitGate {
+
+    static final long PROBE_INTERVAL_MS = 100;
+
+    private final CircuitBreaker circuitBreaker;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition stateChanged = lock.newCondition();
+
+    private volatile CircuitBreaker.State state;
+
+    /**
+     * Subscribes to the state transitions of the {@code mongoCB} circuit
+     * breaker.
+     *
+     * @param circuitBreakerRegistry the registry holding the {@code mongoCB}
+     *                               circuit breaker
+     */
+    public MongoCircuitGate(CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("mongoCB");
+        this.state = circuitBreaker.getState();
+        circuitBreaker.getEventPublisher()
+                .onStateTransition(event -> onTransition(event.getStateTransition().getToState()));
+    }
+
+    /**
+     * Waits until the breaker is no longer open, or until {@code maxWaitMs}
+     * passes.
+     *
+     * @param maxWaitMs the maximum time to wait
+     * @return the breaker state when the wait ended
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public CircuitBreaker.State awaitNotOpen(long maxWaitMs) throws InterruptedException {
+        if (!isOpen())
+            return state;
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        lock.lock();
+        try {
+            long remaining;
+            while (isOpen() && (remaining = deadline - System.nanoTime()) > 0) {
+                probe();
+                if (isOpen())
+                    stateChanged.awaitNanos(
+                            Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(PROBE_INTERVAL_MS)));
+            }
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the last observed state of the breaker.
+     *
+     * @return the breaker state
+     */
+    public CircuitBreaker.State getState() {
+        return state;
+    }
+
+    /**
+     * Checks whether calls towards MongoDB are currently rejected.
+     *
+     * @return {@code true} if the breaker is open or forced open
+     */
+    public boolean isOpen() {
+        CircuitBreaker.State current = state;
+        return current == CircuitBreaker.State.OPEN || current == CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    /**
+     * Checks whether the breaker is only letting trial calls through.
+     *
+     * @return {@code true} if the breaker is half-open
+     */
+    public boolean isHalfOpen() {
+        return state == CircuitBreaker.State.HALF_OPEN;
+    }
+
+    /**
+     * Checks whether MongoDB can take the full write load.
+     *
+     * @return {@code true} if the breaker is neither open nor half-open
+     */
+    public boolean isClosed() {
+        return !isOpen() && !isHalfOpen();
+    }
+
+    /**
+     * Asks the open breaker for a permission, so it can move to half-open, and
+     * releases it unused.
+     */
+    private void probe() {
+        if (circuitBreaker.getState() == CircuitBreaker.State.OPEN && circuitBreaker.tryAcquirePermission())
+            circuitBreaker.releasePermission();
+    }
+
+    private void onTransition(CircuitBreaker.State newState) {
+        state = newState;
+        lock.lock();
+        try {
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        log.warn("[MongoCircuitGate] mongoCB is now {}, log draining {}", newState,
+                isOpen() ? "paused" : isHalfOpen() ? "probing" : "resumed");
+    }
+}
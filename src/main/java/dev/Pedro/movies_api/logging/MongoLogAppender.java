@@ -1,38 +1,73 @@
 package dev.Pedro.movies_api.logging;
 
-import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.logging.sink.LogSink;
+import dev.Pedro.movies_api.logging.spill.LogSpillStore;
 import dev.Pedro.movies_api.model.LogEvent;
-import dev.Pedro.movies_api.service.LoggingService;
-import lombok.extern.slf4j.Slf4j;
 
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * A custom Logback appender that batches log events and writes them to MongoDB
  * asynchronously using a background thread pool.
  */
 @Component
-@Slf4j
-public class MongoLogAppender extends AppenderBase<ILoggingEvent> {
+public class MongoLogAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
 
     private MongoLogBuffer buffer;
     private ThreadPoolExecutor executor;
     private LoggingVariables config;
-    private LoggingService loggingService;
+    private LogBatchWriter batchWriter;
+    private LogSpillStore spillStore;
+    private LogDropAccounting dropAccounting;
+    private LogRateLimiter rateLimiter;
+    private MongoCircuitGate circuitGate;
+    private AdaptiveBatchController batchController;
+    private LogSink sink;
+    private LogTailBroadcaster tailBroadcaster;
+    private RecentLogIndex recentIndex;
+    private LogRepeatAggregator repeatAggregator;
 
     /**
      * Flag to control the background logging loop.
      */
     private volatile boolean running = false;
 
+    /**
+     * Set once the final flush has started; later calls do nothing.
+     */
+    private volatile boolean shuttingDown = false;
+
+    /**
+     * Set once the pipeline is shut down, so that late events are written
+     * straight to the spill store.
+     */
+    private volatile boolean spillOnly = false;
+
+    /**
+     * Handle on the background drain task, awaited by the final flush.
+     */
+    private Future<?> drainTask;
+
     /**
      * Default no-args constructor required by Logback for instantiating appenders.
      */
@@ -46,58 +81,139 @@ public class MongoLogAppender extends AppenderBase<ILoggingEvent> {
      * @param buffer         the buffer for holding log events before persistence
      * @param executor       the thread pool to run background log-saving task
      * @param config         configuration values such as batch size and retry delay
-     * @param loggingService service responsible for persisting logs to MongoDB
+     * @param batchWriter    writer that persists batches within the in-flight
+     *                       window
+     * @param spillStore     on-disk overflow tier used when the buffer is full
+     * @param dropAccounting counters that report dropped logs without logging
+     * @param rateLimiter    per-logger and per-template rate limiter
+     * @param circuitGate    view of the {@code mongoCB} circuit breaker state
+     * @param batchController controller choosing batch size and linger time
+     * @param sink           sink used for the synchronous flush on shutdown
+     * @param tailBroadcaster fan-out of drained batches to live tail clients
+     * @param recentIndex    in-memory ring of the most recent events
+     * @param repeatAggregator aggregator collapsing repeated events
      */
     @Autowired
     public void setDependencies(
             MongoLogBuffer buffer,
             @Qualifier("logExecutor") ThreadPoolExecutor executor,
             LoggingVariables config,
-            LoggingService loggingService) {
+            LogBatchWriter batchWriter,
+            LogSpillStore spillStore,
+            LogDropAccounting dropAccounting,
+            LogRateLimiter rateLimiter,
+            MongoCircuitGate circuitGate,
+            AdaptiveBatchController batchController,
+            LogSink sink,
+            LogTailBroadcaster tailBroadcaster,
+            RecentLogIndex recentIndex,
+            LogRepeatAggregator repeatAggregator) {
         this.buffer = buffer;
         this.executor = executor;
         this.config = config;
-        this.loggingService = loggingService;
+        this.batchWriter = batchWriter;
+        this.spillStore = spillStore;
+        this.dropAccounting = dropAccounting;
+        this.rateLimiter = rateLimiter;
+        this.circuitGate = circuitGate;
+        this.batchController = batchController;
+        this.sink = sink;
+        this.tailBroadcaster = tailBroadcaster;
+        this.recentIndex = recentIndex;
+        this.repeatAggregator = repeatAggregator;
     }
 
     /**
-     * Starts the custom appender. Submits a background task to drain
-     * the buffer and persist logs.
+     * Starts the custom appender. Submits a background task that waits for a
+     * full batch or the linger time, whichever comes first, and persists the
+     * drained logs. Both values come from {@link AdaptiveBatchController}.
+     * <p>
+     * The task follows the {@code mongoCB} circuit breaker through
+     * {@link MongoCircuitGate}: it stops draining while the breaker is open,
+     * sends a single small batch at a time while it is half-open, and goes back
+     * to full batches once it closes.
+     * </p>
+     * <p>
+     * The task also adds the summaries of repeated events closed by
+     * {@link LogRepeatAggregator} to the batches it drains.
+     * </p>
+     * <p>
+     * Every drained batch is also handed to {@link LogTailBroadcaster} for live
+     * tail clients. Events going to the spill store instead mark the
+     * {@link RecentLogIndex} incomplete, since they reach MongoDB without it.
+     * </p>
      */
     @Override
     public void start() {
         if (!isStarted()) {
             super.start();
             running = true;
+            drainTask = executor.submit(this::drainLoop);
+        }
+    }
+
+    /**
+     * Body of the background drain task.
+     */
+    private void drainLoop() {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            List<LogEvent> batch = new ArrayList<>(0);
+            try {
+                // Leave the events in the buffer while MongoDB is unavailable
+                circuitGate.awaitNotOpen(config.getDropSummaryIntervalMs());
+                boolean probing = circuitGate.isHalfOpen();
 
-            executor.submit(() -> {
-                while (running && !Thread.currentThread().isInterrupted()) {
-                    try {
-                        List<LogEvent> batch = buffer.drainBatch(config.getBatchSize());
-                        if (!batch.isEmpty()) {
-                            loggingService.saveLogs(batch);
-                        }
-                        Thread.sleep(config.getRetryDelayMs());
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        running = false;
-                    } catch (Exception e) {
-                        String message = "Error saving logs to MongoDB";
-                        log.error(message, e);
-                        addError(message, e);
-                        try {
-                            Thread.sleep(1000);
-                        } catch (InterruptedException ie) {
-                            break;
-                        }
+                if (!circuitGate.isOpen())
+                    batch = buffer.awaitBatch(
+                            probing ? config.getProbeBatchSize() : batchController.getBatchSize(),
+                            batchController.getLingerMs(), config.getDropSummaryIntervalMs());
+                LogEvent dropSummary = dropAccounting.summarizeIfDue();
+                if (dropSummary != null && batch.isEmpty() && circuitGate.isOpen()) {
+                    buffer.offer(dropSummary);
+                } else if (dropSummary != null) {
+                    batch.add(0, dropSummary);
+                }
+                List<LogEvent> repeats = repeatSummaries(false);
+                if (!repeats.isEmpty() && batch.isEmpty() && circuitGate.isOpen()) {
+                    repeats.forEach(buffer::offer);
+                } else {
+                    batch.addAll(repeats);
+                }
+                if (!batch.isEmpty()) {
+                    tailBroadcaster.publish(batch);
+                    CompletableFuture<Void> written = batchWriter.write(batch);
+                    if (probing) {
+                        // One probe at a time until the breaker closes again
+                        written.exceptionally(t -> null).join();
                     }
                 }
-            });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // The batch never reached the writer, keep it
+                spill(buffer.requeue(batch));
+            } catch (Exception e) {
+                // Reported to the Logback status manager only, logging it would
+                // come back to this appender
+                addError("Error saving logs to MongoDB", e);
+                try {
+                    Thread.sleep(config.getRetryDelayMs());
+                } catch (InterruptedException ie) {
+                    break;
+                }
+            }
         }
+        running = false;
     }
 
     /**
-     * Appends a log event to the internal buffer.
+     * Appends a log event to the internal buffer, unless
+     * {@link LogRepeatAggregator} counts it as a repeat or
+     * {@link LogRateLimiter} suppresses it. When the buffer is full, the
+     * event is written to the on-disk spill store instead, and only dropped if
+     * that is unavailable too. Drops are counted in {@link LogDropAccounting}
+     * and reported by the drain thread as a periodic summary. The appender is
+     * unsynchronized, so request threads do not queue up behind each other
+     * here.
      *
      * @param event the log event to append
      */
@@ -107,16 +223,93 @@ public class MongoLogAppender extends AppenderBase<ILoggingEvent> {
         if (!isStarted() || buffer == null)
             return;
 
+        if (!repeatAggregator.admit(event))
+            return;
+
+        long suppressed = rateLimiter.admit(event);
+        if (suppressed == LogRateLimiter.SUPPRESSED)
+            return;
+
         LogEvent logEvent = toLogEvent(event);
-        if (!buffer.offerAndVerify(logEvent)) {
-            String message = "Buffer full - log dropped";
-            log.error(message);
-            addError(message);
+        logEvent.setSuppressed(suppressed);
+        if (spillOnly || !buffer.offerAndVerify(logEvent)) {
+            recentIndex.markIncomplete();
+            if (!spillStore.append(logEvent)) {
+                // Never log from here: this appender is attached to the root logger
+                dropAccounting.record(logEvent);
+            }
+        }
+    }
+
+    /**
+     * Flushes the buffer to the log sink as part of a graceful shutdown.
+     * <p>
+     * The background drain task is stopped first, and the summaries of the
+     * repeated events not reported yet are added to the buffer. The buffer is
+     * then written in
+     * batches of {@code logging.shutdown.batch-size} straight through the sink,
+     * together with the events appended meanwhile, until it is empty and no
+     * batch is in flight, or until {@code logging.shutdown.deadline-ms} passes.
+     * Whatever is left is written to the spill store. From then on, new events
+     * go straight to the spill store, so nothing logged later in the shutdown is
+     * lost either.
+     * </p>
+     *
+     * @return the number of events written to the sink during the flush
+     */
+    public int drainOnShutdown() {
+        if (!isStarted() || shuttingDown)
+            return 0;
+        shuttingDown = true;
+
+        LoggingVariables.Shutdown settings = config.getShutdown();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.getDeadlineMs());
+
+        running = false;
+        buffer.requestFlush();
+        try {
+            if (drainTask != null)
+                drainTask.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            addWarn("Drain task did not stop in time", e);
+        }
+
+        for (LogEvent repeat : repeatSummaries(true)) {
+            if (!buffer.offerAndVerify(repeat))
+                spill(List.of(repeat));
+        }
+
+        int flushed = 0;
+        while (System.nanoTime() < deadline && !circuitGate.isOpen()
+                && (buffer.size() > 0 || batchWriter.inFlight() > 0)) {
+            List<LogEvent> batch = buffer.drainNow(settings.getBatchSize());
+            if (batch.isEmpty()) {
+                // Wait for in-flight batches, whose fallback may requeue events
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                continue;
+            }
+            try {
+                sink.write(batch);
+                flushed += batch.size();
+            } catch (RuntimeException e) {
+                addWarn("Final log flush failed, spilling the rest", e);
+                spill(batch);
+                break;
+            }
         }
+
+        spillOnly = true;
+        int spilled = spillRemaining();
+        addInfo("Final log flush wrote " + flushed + " events and spilled " + spilled);
+        return flushed;
     }
 
     /**
-     * Stops the background logging thread and the appender itself.
+     * Stops the background logging thread and the appender itself. Events still
+     * in the buffer are written to the spill store, to be replayed on the next
+     * start.
      */
     @Override
     public void stop() {
@@ -125,24 +318,123 @@ public class MongoLogAppender extends AppenderBase<ILoggingEvent> {
             return;
 
         running = false;
+        spillOnly = true;
+        buffer.requestFlush();
+        spill(repeatSummaries(true));
+        spillRemaining();
         executor.shutdownNow();
         super.stop();
     }
 
+    /**
+     * Moves every buffered event to the spill store.
+     *
+     * @return the number of events spilled
+     */
+    private int spillRemaining() {
+        int spilled = 0;
+        List<LogEvent> rest;
+        while (!(rest = buffer.drainNow(config.getShutdown().getBatchSize())).isEmpty()) {
+            spilled += spill(rest);
+        }
+        spillStore.force();
+        return spilled;
+    }
+
+    /**
+     * Writes the events to the spill store, counting the ones it cannot take
+     * as dropped.
+     *
+     * @return the number of events spilled
+     */
+    private int spill(List<LogEvent> events) {
+        if (events.isEmpty())
+            return 0;
+        recentIndex.markIncomplete();
+        int written = spillStore.append(events);
+        for (LogEvent lost : events.subList(written, events.size())) {
+            dropAccounting.record(lost);
+        }
+        return written;
+    }
+
+    /**
+     * Builds the summary events of the repeats collected by
+     * {@link LogRepeatAggregator}. A summary is a copy of the first event,
+     * timestamped with the last repeat, with the repeat count and the time of
+     * the first and last occurrence.
+     *
+     * @param all whether to close every open window, as on shutdown
+     * @return the summary events
+     */
+    List<LogEvent> repeatSummaries(boolean all) {
+        List<LogRepeatAggregator.Repeat> repeats = repeatAggregator.collect(all);
+        List<LogEvent> summaries = new ArrayList<>(repeats.size());
+        for (LogRepeatAggregator.Repeat repeat : repeats) {
+            LogEvent summary = toLogEvent(repeat.first());
+            LocalDateTime lastSeen = toUtc(repeat.lastSeen());
+            summary.setLocalDateTime(lastSeen);
+            summary.setRepeatCount(repeat.count());
+            summary.setFirstSeen(toUtc(repeat.firstSeen()));
+            summary.setLastSeen(lastSeen);
+            summaries.add(summary);
+        }
+        return summaries;
+    }
+
     /**
      * Converts a Logback {@link ILoggingEvent] into a custom {@link LogEvent}
-     * object suitable for MongoDB persistence.
+     * object suitable for MongoDB persistence. The timestamp is the time the
+     * event was logged, in UTC, not the time it reached the appender. Events
+     * logged with arguments also keep their template and arguments, for
+     * {@link dev.Pedro.movies_api.logging.sink.LogTemplateDictionary}.
      *
      * @param event the logging event
      * @return a new `LogEvent` with extracted information
      */
     private LogEvent toLogEvent(ILoggingEvent event) {
-        return new LogEvent(
+        LogEvent logEvent = new LogEvent(
                 ObjectId.get(),
                 event.getLevel().toString(),
                 event.getLoggerName(),
                 event.getThreadName(),
                 event.getFormattedMessage(),
                 event.getMDCPropertyMap());
+        // Millisecond precision, as stored in MongoDB
+        logEvent.setLocalDateTime(toUtc(event.getInstant()));
+
+        List<String> args = config.getTemplates().isEnabled() ? toArgs(event.getArgumentArray()) : null;
+        if (args != null) {
+            logEvent.setTemplate(event.getMessage());
+            logEvent.setArgs(args);
+        }
+        return logEvent;
+    }
+
+    private static LocalDateTime toUtc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC).truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    /**
+     * Converts the arguments of an event to strings, as the message formatter
+     * would.
+     *
+     * @return the arguments, or {@code null} if there are none or one of them
+     *         cannot be rendered the same way from its string form
+     */
+    private static List<String> toArgs(Object[] arguments) {
+        if (arguments == null || arguments.length == 0)
+            return null;
+        List<String> args = new ArrayList<>(arguments.length);
+        for (Object argument : arguments) {
+            if (argument != null && argument.getClass().isArray())
+                return null;
+            try {
+                args.add(String.valueOf(argument));
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+        return args;
     }
 }
@@ -1,7 +1,7 @@
 package dev.Pedro.movies_api.logging;
 
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
 import dev.Pedro.movies_api.model.LogEvent;
-import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
@@ -9,21 +9,33 @@ import org.springframework.stereotype.Component;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Component that manages a buffer for {@link LogEvent} objects using a
- * {@link BlockingQueue}. Provides batch retrieval, insertion, and requeueing
+ * Component that manages a buffer for {@link LogEvent} objects using
+ * {@link BlockingQueue}s. Provides batch retrieval, insertion, and requeueing
  * of log events to support asynchronous logging to MongoDB.
  * <p>
  * The buffer operates as an intermediary holding area for log events before
- * they are processed and persisted. This class wraps the injected
- * {@code BlockingQueue<LogEvent>} bean named {@code "logBuffer"} and adds
- * convenience methods to batch drain events and safely requeue failed logs.
+ * they are processed and persisted. It is split into two lanes:
+ * </p>
+ * <ul>
+ * <li>the priority lane, the {@code BlockingQueue<LogEvent>} bean named
+ * {@code "logPriorityBuffer"}, reserved for {@code WARN} and {@code ERROR}
+ * events and always drained first;</li>
+ * <li>the standard lane, the bean named {@code "logBuffer"}, holding every
+ * other event and the priority events that overflow their lane.</li>
+ * </ul>
+ * <p>
+ * When the standard lane fills up, the configured {@link LogOverflowPolicy}
+ * decides what is shed, so a flood of {@code DEBUG}/{@code TRACE} cannot push
+ * out the errors. Events discarded by the buffer are counted in
+ * {@link LogDropAccounting}.
  * </p>
  */
 @Component
-@Slf4j
 public class MongoLogBuffer {
 
     /**
@@ -32,53 +44,158 @@ public class MongoLogBuffer {
     private final BlockingQueue<LogEvent> buffer;
 
     /**
-     * Constructs a new {@code MongoLogBuffer} using the specified buffer bean.
+     * The lane reserved for {@code WARN} and {@code ERROR} events.
+     */
+    private final BlockingQueue<LogEvent> priorityBuffer;
+
+    private final LoggingVariables config;
+
+    /**
+     * Counters for the events discarded by the buffer.
+     */
+    private final LogDropAccounting dropAccounting;
+
+    /**
+     * The drain thread currently parked in {@link #awaitBatch(int, long, long)}, or
+     * {@code null} when no consumer is waiting.
+     */
+    private volatile Thread consumer;
+
+    /**
+     * Number of queued events at which producers wake the parked consumer.
+     */
+    private volatile int wakeThreshold = 1;
+
+    /**
+     * Set by {@link #requestFlush()} to make the parked consumer return
+     * without waiting for a full batch.
+     */
+    private volatile boolean flushRequested = false;
+
+    /**
+     * Constructs a new {@code MongoLogBuffer} using the specified buffer beans.
      *
-     * @param buffer the {@code BlockingQueue<LogEvent>} bean named "logBuffer"
+     * @param buffer         the {@code BlockingQueue<LogEvent>} bean named
+     *                       "logBuffer"
+     * @param priorityBuffer the {@code BlockingQueue<LogEvent>} bean named
+     *                       "logPriorityBuffer"
+     * @param config         configuration values such as the overflow policy
+     * @param dropAccounting the counters recording discarded events
      */
-    public MongoLogBuffer(@Qualifier("logBuffer") BlockingQueue<LogEvent> buffer) {
+    public MongoLogBuffer(@Qualifier("logBuffer") BlockingQueue<LogEvent> buffer,
+            @Qualifier("logPriorityBuffer") BlockingQueue<LogEvent> priorityBuffer,
+            LoggingVariables config,
+            LogDropAccounting dropAccounting) {
         this.buffer = buffer;
+        this.priorityBuffer = priorityBuffer;
+        this.config = config;
+        this.dropAccounting = dropAccounting;
     }
 
     /**
-     * Retrieves up to {@code size} log events from the buffer as a batch.
+     * Waits for a batch of log events using size-or-time flushing.
      * <p>
-     * This method attempts to retrieve the first event with a timeout of 100
-     * milliseconds,
-     * then drains up to {@code size - 1} additional events to the batch without
-     * blocking.
-     * This helps efficiently collect log events in batches for processing.
+     * The calling thread parks while the buffer is empty, for at most
+     * {@code maxIdleMs} so the caller gets a chance to do periodic work. Once the
+     * first event
+     * arrives, it keeps parking until either {@code size} events are queued or
+     * {@code maxLingerMs} milliseconds have passed since that first event, and
+     * then drains up to {@code size} events. Producers wake the consumer through
+     * {@link #offerAndVerify(LogEvent)} when the threshold is crossed, so a full
+     * batch is flushed immediately and an idle buffer costs no CPU.
      * </p>
      *
-     * @param size the maximum number of log events to retrieve in the batch
-     * @return a list of log events up to the requested batch size; may be empty if
-     *         no logs available
+     * @param size        the maximum number of log events to retrieve in the batch
+     * @param maxLingerMs the maximum time the first queued event waits for the
+     *                    batch to fill up
+     * @param maxIdleMs   the maximum time to wait for a first event
+     * @return a list of log events up to the requested batch size; empty if the
+     *         buffer stayed idle or the waiting thread was interrupted
      */
-    public List<LogEvent> drainBatch(int size) {
-        List<LogEvent> batch = new ArrayList<>(size);
+    public List<LogEvent> awaitBatch(int size, long maxLingerMs, long maxIdleMs) {
+        Thread current = Thread.currentThread();
+        consumer = current;
         try {
-            LogEvent first = buffer.poll(100, TimeUnit.MILLISECONDS);
-            if (first != null) {
-                batch.add(first);
-                buffer.drainTo(batch, size - 1);
+            wakeThreshold = 1;
+            long idleDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxIdleMs);
+            long idleRemaining;
+            while (size() == 0) {
+                if (flushRequested || current.isInterrupted() || (idleRemaining = idleDeadline - System.nanoTime()) <= 0)
+                    return new ArrayList<>(0);
+                LockSupport.parkNanos(this, idleRemaining);
             }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.warn("[MongoLogBuffer] Something went wrong with drainBatch {} logs.", size, e);
+
+            wakeThreshold = size;
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxLingerMs);
+            long remaining;
+            while (size() < size && (remaining = deadline - System.nanoTime()) > 0) {
+                if (flushRequested || current.isInterrupted())
+                    break;
+                LockSupport.parkNanos(this, remaining);
+            }
+        } finally {
+            consumer = null;
+            flushRequested = false;
         }
+
+        List<LogEvent> batch = new ArrayList<>(size);
+        drainLanes(batch, size);
         return batch;
     }
 
     /**
-     * Attempts to add a new log event to the buffer without blocking and retrieve
-     * a boolean whether the log was offered or not.
+     * Retrieves up to {@code size} log events without waiting, priority events
+     * first.
+     *
+     * @param size the maximum number of log events to retrieve
+     * @return the events taken from the buffer; empty if it is empty
+     */
+    public List<LogEvent> drainNow(int size) {
+        List<LogEvent> batch = new ArrayList<>(Math.min(size, size()));
+        drainLanes(batch, size);
+        return batch;
+    }
+
+    /**
+     * Wakes the consumer parked in {@link #awaitBatch(int, long, long)} and makes
+     * it return right away with whatever is queued.
+     */
+    public void requestFlush() {
+        flushRequested = true;
+        Thread waiting = consumer;
+        if (waiting != null)
+            LockSupport.unpark(waiting);
+    }
+
+    /**
+     * Fills the batch up to {@code size} events, taking the priority lane first.
+     */
+    private void drainLanes(List<LogEvent> batch, int size) {
+        if (batch.size() < size)
+            priorityBuffer.drainTo(batch, size - batch.size());
+        if (batch.size() < size)
+            buffer.drainTo(batch, size - batch.size());
+    }
+
+    /**
+     * Attempts to add a new log event to the buffer and retrieve a boolean
+     * whether the log was handled or not.
+     * <p>
+     * {@code WARN} and {@code ERROR} events go to the priority lane first. Other
+     * events, and priority events that do not fit in their lane, go to the
+     * standard lane under the configured {@link LogOverflowPolicy}. Events shed
+     * on purpose by the policy count as handled.
+     * </p>
      *
      * @param log the log event to add.
-     * @return {@code true} if the event was successfully added; {@code false} if
-     *         the buffer is full.
+     * @return {@code true} if the event was queued or deliberately shed;
+     *         {@code false} if the buffer is full and the caller should fall back
+     *         to another tier.
      */
     public boolean offerAndVerify(LogEvent log) {
-        boolean offered = buffer.offer(log);
+        boolean offered = (isPriority(log) && priorityBuffer.offer(log)) || offerWithPolicy(log);
+        if (offered)
+            signalConsumer();
         return offered;
     }
 
@@ -88,40 +205,118 @@ public class MongoLogBuffer {
      * @param log the log event to add.
      */
     public void offer(LogEvent log) {
-        buffer.offer(log);
-        return;
+        if (!offerAndVerify(log))
+            recordDropped(log);
+    }
+
+    /**
+     * Returns the number of events waiting in both lanes.
+     *
+     * @return the number of queued events
+     */
+    public int size() {
+        return priorityBuffer.size() + buffer.size();
+    }
+
+    /**
+     * Returns the number of events waiting in the priority lane.
+     *
+     * @return the number of queued priority events
+     */
+    public int prioritySize() {
+        return priorityBuffer.size();
+    }
+
+    /**
+     * Counts a log event as dropped, without logging anything.
+     *
+     * @param log the log event that was discarded
+     */
+    public void recordDropped(LogEvent log) {
+        dropAccounting.record(log);
+    }
+
+    /**
+     * Offers an event to the standard lane, applying the overflow policy.
+     */
+    private boolean offerWithPolicy(LogEvent log) {
+        LogOverflowPolicy policy = config.getOverflowPolicy();
+        switch (policy) {
+            case DROP_OLDEST -> {
+                while (!buffer.offer(log)) {
+                    LogEvent evicted = buffer.poll();
+                    if (evicted != null)
+                        recordDropped(evicted);
+                }
+                return true;
+            }
+            case SAMPLE -> {
+                int capacity = buffer.size() + buffer.remainingCapacity();
+                boolean aboveWatermark = buffer.size() >= capacity * config.getOverflowSampleWatermark();
+                if (aboveWatermark && !isPriority(log)
+                        && ThreadLocalRandom.current().nextDouble() >= config.getOverflowSampleRatio()) {
+                    recordDropped(log);
+                    return true;
+                }
+                return buffer.offer(log);
+            }
+            case BLOCK -> {
+                try {
+                    return buffer.offer(log, config.getOverflowBlockTimeoutMs(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            default -> {
+                return buffer.offer(log);
+            }
+        }
+    }
+
+    private static boolean isPriority(LogEvent log) {
+        return "WARN".equals(log.getLevel()) || "ERROR".equals(log.getLevel());
+    }
+
+    /**
+     * Unparks the waiting consumer once the buffer holds enough events for it to
+     * flush.
+     */
+    private void signalConsumer() {
+        Thread waiting = consumer;
+        if (waiting != null && size() >= wakeThreshold)
+            LockSupport.unpark(waiting);
     }
 
     /**
      * Attempts to requeue a list of log events back into the buffer, typically used
      * when processing previously drained events failed and they need to be retried.
      * <p>
-     * Logs the number of successfully requeued logs and any failures due to a full
-     * buffer.
+     * Nothing is logged here: requeues happen on every failed batch, and a log
+     * call would feed this buffer while it is already under pressure. The
+     * caller decides what happens to the returned events.
      * </p>
      *
      * @param logs the list of log events to requeue; if {@code null} or empty, this
      *             method returns immediately.
+     * @return the log events that did not fit back into the buffer, in their
+     *         original order; the overflow policy is not applied to requeued
+     *         events
      */
-    public void requeue(List<LogEvent> logs) {
-
-        int logsSize = logs.size();
+    public List<LogEvent> requeue(List<LogEvent> logs) {
 
         if (logs == null || logs.isEmpty())
-            return;
-
-        log.info("[MongoLogBuffer] Trying to requeue {} logs into buffer", logsSize);
+            return new ArrayList<>(0);
 
-        int requeued = 0;
+        List<LogEvent> rejected = new ArrayList<>(0);
         for (LogEvent log : logs) {
-            if (log != null && buffer.offer(log))
-                requeued++;
-        }
-
-        if (requeued < logsSize) {
-            log.error("[MongoLogBuffer] Failed to requeue {} logs (buffer full)", (logsSize - requeued));
-            return;
+            if (log == null)
+                continue;
+            boolean offered = isPriority(log) ? priorityBuffer.offer(log) || buffer.offer(log) : buffer.offer(log);
+            if (!offered)
+                rejected.add(log);
         }
-        log.info("[MongoLogBuffer] Requeued {} logs successfully", requeued);
+        signalConsumer();
+        return rejected;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,234 @@
+package dev.Pedro.movies_api.logging;
+
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.model.LogEvent;
+
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Bounded in-memory ring of the most recently written log events, with small
+ * secondary indexes by level and by logger.
+ * <p>
+ * Every batch the log sink writes successfully is appended, once per log id,
+ * so batches requeued after a failed write are not counted twice. Once the
+ * ring holds {@code logging.recent.capacity} events, each new event evicts the
+ * oldest one, so memory stays bounded by the capacity. The ring knows the
+ * point in time after which it holds every written event, see
+ * {@link #covers(LocalDateTime)}; searches starting after that point can be
+ * answered without MongoDB.
+ * </p>
+ * <p>
+ * Events written to the spill store reach MongoDB later through the replayer,
+ * without going through the ring, so spilling calls
+ * {@link #markIncomplete()} and the ring stops claiming the time before it.
+ * </p>
+ * <p>
+ * The ring only holds the events of this instance, so it is disabled by
+ * default and should only be enabled with {@code logging.recent.enabled=true}
+ * when a single instance writes the log collection.
+ * </p>
+ */
+@Component
+public class RecentLogIndex {
+
+    private final LoggingVariables.Recent config;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LogEvent[] ring;
+
+    /**
+     * Sequence number of the next appended event; event {@code n} lives in
+     * slot {@code n % capacity}.
+     */
+    private long nextSeq = 0;
+
+    /**
+     * Log ids of the events in the ring.
+     */
+    private final Set<ObjectId> ids = new HashSet<>();
+
+    private final Map<String, ArrayDeque<Long>> byLevel = new HashMap<>();
+    private final Map<String, ArrayDeque<Long>> byLogger = new HashMap<>();
+
+    /**
+     * Events in the ring whose logger is missing from {@link #byLogger}
+     * because the index was full when they arrived.
+     */
+    private int unindexedLoggerEvents = 0;
+
+    /**
+     * Every written event logged after this time is in the ring.
+     */
+    private LocalDateTime completeAfter = LocalDateTime.now(ZoneOffset.UTC);
+
+    /**
+     * Epoch millis of the last spill; events logged before it may reach
+     * MongoDB without going through the ring. Updated without the lock, since
+     * spills happen on request threads.
+     */
+    private final AtomicLong incompleteUntil = new AtomicLong();
+
+    /**
+     * @param config configuration values holding the ring settings
+     */
+    public RecentLogIndex(LoggingVariables config) {
+        this.config = config.getRecent();
+        this.ring = new LogEvent[this.config.isEnabled() ? Math.max(1, this.config.getCapacity()) : 0];
+    }
+
+    /**
+     * Adds a written batch to the ring, evicting the oldest events if it is
+     * full. Events whose log id is already in the ring are skipped.
+     *
+     * @param batch the log events written by the log sink
+     */
+    public void append(List<LogEvent> batch) {
+        if (ring.length == 0)
+            return;
+        lock.writeLock().lock();
+        try {
+            for (LogEvent event : batch) {
+                if (event.getLogId() != null && !ids.add(event.getLogId()))
+                    continue;
+                long seq = nextSeq++;
+                int slot = (int) (seq % ring.length);
+                if (ring[slot] != null)
+                    evict(ring[slot], seq - ring.length);
+                ring[slot] = event;
+
+                byLevel.computeIfAbsent(event.getLevel(), l -> new ArrayDeque<>()).addLast(seq);
+                ArrayDeque<Long> loggerSeqs = byLogger.get(event.getLogger());
+                if (loggerSeqs == null && byLogger.size() < config.getMaxLoggers()) {
+                    loggerSeqs = new ArrayDeque<>();
+                    byLogger.put(event.getLogger(), loggerSeqs);
+                }
+                if (loggerSeqs != null) {
+                    loggerSeqs.addLast(seq);
+                } else {
+                    unindexedLoggerEvents++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records that events logged until now are going to the spill store, so
+     * the ring no longer holds every written event before this point.
+     */
+    public void markIncomplete() {
+        if (ring.length == 0)
+            return;
+        long now = System.currentTimeMillis();
+        incompleteUntil.accumulateAndGet(now, Math::max);
+    }
+
+    /**
+     * Returns whether the ring holds every written event logged after the
+     * given time.
+     *
+     * @param after the start of a search range; {@code null} for no start
+     * @return {@code true} if a search from {@code after} can be answered from
+     *         the ring
+     */
+    public boolean covers(LocalDateTime after) {
+        if (ring.length == 0 || after == null)
+            return false;
+        lock.readLock().lock();
+        try {
+            LocalDateTime spilledUntil = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(incompleteUntil.get()), ZoneOffset.UTC);
+            return after.isAfter(completeAfter) && after.isAfter(spilledUntil);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the events of the ring matching a filter, in write order. The
+     * level and logger prefix, when given, select the candidates through the
+     * secondary indexes; {@code filter} is then applied to every candidate.
+     *
+     * @param level        the exact level, or {@code null}
+     * @param loggerPrefix the logger prefix, or {@code null}
+     * @param filter       the full filter of the search
+     * @return the matching events
+     */
+    public List<LogEvent> find(String level, String loggerPrefix, Predicate<LogEvent> filter) {
+        lock.readLock().lock();
+        try {
+            List<LogEvent> matches = new ArrayList<>();
+            for (long seq : candidates(level, loggerPrefix)) {
+                LogEvent event = ring[(int) (seq % ring.length)];
+                if (filter.test(event))
+                    matches.add(event);
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Picks the smallest index that applies, or every event of the ring.
+     */
+    private Iterable<Long> candidates(String level, String loggerPrefix) {
+        if (level != null)
+            return byLevel.getOrDefault(level, new ArrayDeque<>());
+        if (loggerPrefix != null && unindexedLoggerEvents == 0) {
+            List<Long> seqs = new ArrayList<>();
+            byLogger.forEach((logger, loggerSeqs) -> {
+                if (logger != null && logger.startsWith(loggerPrefix))
+                    seqs.addAll(loggerSeqs);
+            });
+            seqs.sort(null);
+            return seqs;
+        }
+        List<Long> all = new ArrayList<>();
+        for (long seq = Math.max(0, nextSeq - ring.length); seq < nextSeq; seq++) {
+            all.add(seq);
+        }
+        return all;
+    }
+
+    private void evict(LogEvent event, long seq) {
+        if (event.getLogId() != null)
+            ids.remove(event.getLogId());
+        removeFirst(byLevel, event.getLevel(), seq);
+        if (!removeFirst(byLogger, event.getLogger(), seq))
+            unindexedLoggerEvents--;
+        if (event.getLocalDateTime() != null && event.getLocalDateTime().isAfter(completeAfter))
+            completeAfter = event.getLocalDateTime();
+    }
+
+    /**
+     * Removes the evicted sequence from the head of its index entry. Entries
+     * are in write order, so the evicted event is always at the head.
+     */
+    private static boolean removeFirst(Map<String, ArrayDeque<Long>> index, String key, long seq) {
+        ArrayDeque<Long> seqs = index.get(key);
+        if (seqs == null || seqs.isEmpty() || seqs.peekFirst() != seq)
+            return false;
+        seqs.pollFirst();
+        if (seqs.isEmpty())
+            index.remove(key);
+        return true;
+    }
+}
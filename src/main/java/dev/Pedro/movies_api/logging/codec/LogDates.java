@@ -0,0 +1,39 @@
+package dev.Pedro.movies_api.logging.codec;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+/**
+ * Converts between the {@link LocalDateTime} values of log events and the
+ * BSON dates stored in MongoDB.
+ * <p>
+ * Log times are UTC wall-clock times, so they are stored as the UTC instant
+ * they name, the same convention used by {@link LogEventCodec}.
+ * </p>
+ */
+public final class LogDates {
+
+    private LogDates() {
+    }
+
+    /**
+     * Converts a {@link LocalDateTime} to a UTC {@link Date}.
+     *
+     * @param ldt the LocalDateTime to convert
+     * @return a Date object representing the same instant in UTC
+     */
+    public static Date toDateUTC(LocalDateTime ldt) {
+        return Date.from(ldt.toInstant(ZoneOffset.UTC));
+    }
+
+    /**
+     * Converts a UTC {@link Date} back to a {@link LocalDateTime}.
+     *
+     * @param date the date to convert; may be {@code null}
+     * @return the UTC wall-clock time of the date, or {@code null}
+     */
+    public static LocalDateTime toLocalDateTime(Date date) {
+        return date != null ? LocalDateTime.ofInstant(date.toInstant(), ZoneOffset.UTC) : null;
+    }
+}
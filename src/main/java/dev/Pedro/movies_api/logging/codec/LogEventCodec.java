@@ -0,0 +1,266 @@
+package dev.Pedro.movies_api.logging.codec;
+
+import dev.Pedro.movies_api.model.LogEvent;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hand-written BSON {@link Codec} for {@link LogEvent}.
+ * <p>
+ * Encodes the fields straight into the BSON output buffer, skipping the
+ * reflective {@code MappingMongoConverter} and the intermediate
+ * {@code Document} maps it builds for every event and its MDC. The document
+ * layout matches the one produced by Spring Data, without the {@code _class}
+ * hint. {@code localDateTime} is written as a UTC date, the same convention
+ * used by the log search filters.
+ * </p>
+ * <p>
+ * For time-series collections, level, logger and thread are written under a
+ * {@code meta} subdocument instead, the collection's metaField. Both shapes
+ * are decoded.
+ * </p>
+ * <p>
+ * Documents bound for MongoDB also get the indexed search fields: a
+ * {@code messageTokens} array, the form of the message used by keyword
+ * search, and a {@code mdcAttrs} array of {@code {k, v}} pairs, the form of
+ * the MDC used by attribute search. Both are derived data, so they are skipped
+ * when decoding.
+ * </p>
+ * <p>
+ * In those documents, an event whose template was interned by
+ * {@code LogTemplateDictionary} is written as its {@code templateId} and
+ * {@code args} instead of its formatted message.
+ * </p>
+ */
+public class LogEventCodec implements Codec<LogEvent> {
+
+    static final String ID = "_id";
+    public static final String TIMESTAMP = "localDateTime";
+    public static final String META = "meta";
+    static final String LEVEL = "level";
+    static final String LOGGER = "logger";
+    static final String THREAD = "thread";
+    public static final String MESSAGE = "message";
+    public static final String TEMPLATE_ID = "templateId";
+    public static final String ARGS = "args";
+    public static final String MESSAGE_TOKENS = "messageTokens";
+    static final String MDC = "mdc";
+    public static final String MDC_ATTRS = "mdcAttrs";
+    public static final String MDC_KEY = "k";
+    public static final String MDC_VALUE = "v";
+    public static final String SUPPRESSED = "suppressed";
+    public static final String REPEAT_COUNT = "repeatCount";
+    static final String FIRST_SEEN = "firstSeen";
+    static final String LAST_SEEN = "lastSeen";
+
+    /**
+     * Fields grouped under {@link #META} in the time-series layout.
+     */
+    public static final List<String> META_FIELDS = List.of(LEVEL, LOGGER, THREAD);
+
+    private final boolean metaField;
+    private final boolean searchFields;
+
+    /**
+     * Creates a codec for the flat document layout, without search fields.
+     */
+    public LogEventCodec() {
+        this(false, false);
+    }
+
+    /**
+     * @param metaField    whether to group level, logger and thread under
+     *                     {@link #META}
+     * @param searchFields whether to write the indexed search fields,
+     *                     {@link #MESSAGE_TOKENS} and {@link #MDC_ATTRS}, and
+     *                     templated messages as {@link #TEMPLATE_ID} and
+     *                     {@link #ARGS}
+     */
+    public LogEventCodec(boolean metaField, boolean searchFields) {
+        this.metaField = metaField;
+        this.searchFields = searchFields;
+    }
+
+    /**
+     * Writes a {@link LogEvent} as a BSON document.
+     *
+     * @param writer         the BSON writer to encode into
+     * @param value          the log event to encode
+     * @param encoderContext the encoder context
+     */
+    @Override
+    public void encode(BsonWriter writer, LogEvent value, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+
+        if (value.getLogId() != null)
+            writer.writeObjectId(ID, value.getLogId());
+        writeDateTime(writer, TIMESTAMP, value.getLocalDateTime());
+
+        if (metaField)
+            writer.writeStartDocument(META);
+        writeString(writer, LEVEL, value.getLevel());
+        writeString(writer, LOGGER, value.getLogger());
+        writeString(writer, THREAD, value.getThread());
+        if (metaField)
+            writer.writeEndDocument();
+        if (searchFields && value.getTemplateId() != null) {
+            writer.writeInt64(TEMPLATE_ID, value.getTemplateId());
+            writer.writeStartArray(ARGS);
+            for (String arg : value.getArgs()) {
+                writer.writeString(arg);
+            }
+            writer.writeEndArray();
+        } else {
+            writeString(writer, MESSAGE, value.getMessage());
+        }
+
+        if (searchFields && value.getMessage() != null) {
+            writer.writeStartArray(MESSAGE_TOKENS);
+            for (String token : LogMessageTokens.of(value.getMessage())) {
+                writer.writeString(token);
+            }
+            writer.writeEndArray();
+        }
+
+        Map<String, String> mdc = value.getMdc();
+        if (mdc != null) {
+            writer.writeStartDocument(MDC);
+            for (Map.Entry<String, String> entry : mdc.entrySet()) {
+                writeString(writer, entry.getKey(), entry.getValue());
+            }
+            writer.writeEndDocument();
+
+            if (searchFields && !mdc.isEmpty()) {
+                writer.writeStartArray(MDC_ATTRS);
+                for (Map.Entry<String, String> entry : mdc.entrySet()) {
+                    writer.writeStartDocument();
+                    writeString(writer, MDC_KEY, entry.getKey());
+                    writeString(writer, MDC_VALUE, entry.getValue());
+                    writer.writeEndDocument();
+                }
+                writer.writeEndArray();
+            }
+        }
+
+        if (value.getSuppressed() > 0)
+            writer.writeInt64(SUPPRESSED, value.getSuppressed());
+        if (value.getRepeatCount() > 0) {
+            writer.writeInt64(REPEAT_COUNT, value.getRepeatCount());
+            writeDateTime(writer, FIRST_SEEN, value.getFirstSeen());
+            writeDateTime(writer, LAST_SEEN, value.getLastSeen());
+        }
+
+        writer.writeEndDocument();
+    }
+
+    /**
+     * Reads a BSON document back into a {@link LogEvent}. Unknown fields are
+     * skipped.
+     *
+     * @param reader         the BSON reader to decode from
+     * @param decoderContext the decoder context
+     * @return the decoded log event
+     */
+    @Override
+    public LogEvent decode(BsonReader reader, DecoderContext decoderContext) {
+        LogEvent logEvent = new LogEvent();
+        readFields(reader, logEvent);
+        return logEvent;
+    }
+
+    private static void readFields(BsonReader reader, LogEvent logEvent) {
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (name) {
+                case ID -> logEvent.setLogId(reader.readObjectId());
+                case TIMESTAMP -> logEvent.setLocalDateTime(readDateTime(reader));
+                case LEVEL -> logEvent.setLevel(reader.readString());
+                case LOGGER -> logEvent.setLogger(reader.readString());
+                case THREAD -> logEvent.setThread(reader.readString());
+                case MESSAGE -> logEvent.setMessage(reader.readString());
+                case TEMPLATE_ID -> logEvent.setTemplateId(reader.readInt64());
+                case ARGS -> logEvent.setArgs(readStringList(reader));
+                case MDC -> logEvent.setMdc(readStringMap(reader));
+                case SUPPRESSED -> logEvent.setSuppressed(reader.readInt64());
+                case REPEAT_COUNT -> logEvent.setRepeatCount(reader.readInt64());
+                case FIRST_SEEN -> logEvent.setFirstSeen(readDateTime(reader));
+                case LAST_SEEN -> logEvent.setLastSeen(readDateTime(reader));
+                case META -> readFields(reader, logEvent);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+    }
+
+    /**
+     * Returns the class handled by this codec.
+     *
+     * @return {@code LogEvent.class}
+     */
+    @Override
+    public Class<LogEvent> getEncoderClass() {
+        return LogEvent.class;
+    }
+
+    private static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null)
+            writer.writeString(name, value);
+    }
+
+    private static void writeDateTime(BsonWriter writer, String name, LocalDateTime value) {
+        if (value != null)
+            writer.writeDateTime(name, value.toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+
+    private static LocalDateTime readDateTime(BsonReader reader) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(reader.readDateTime()), ZoneOffset.UTC);
+    }
+
+    private static List<String> readStringList(BsonReader reader) {
+        List<String> list = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() == BsonType.STRING) {
+                list.add(reader.readString());
+            } else {
+                reader.skipValue();
+                list.add(null);
+            }
+        }
+        reader.readEndArray();
+        return list;
+    }
+
+    private static Map<String, String> readStringMap(BsonReader reader) {
+        Map<String, String> map = new LinkedHashMap<>();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String key = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.STRING) {
+                map.put(key, reader.readString());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return map;
+    }
+}
@@ -0,0 +1,53 @@
+package dev.Pedro.movies_api.logging.codec;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits log messages into the lowercased words stored in
+ * {@code messageTokens}, so keyword search can use a multikey index instead of
+ * a regular expression.
+ * <p>
+ * A token is a run of letters and digits. Tokens shorter than
+ * {@value #MIN_LENGTH} characters are ignored, longer ones are cut at
+ * {@value #MAX_LENGTH}, and at most {@value #MAX_TOKENS} distinct tokens are
+ * kept per message, which bounds the index entries per event.
+ * </p>
+ */
+public final class LogMessageTokens {
+
+    static final int MIN_LENGTH = 2;
+    static final int MAX_LENGTH = 64;
+    static final int MAX_TOKENS = 64;
+
+    private LogMessageTokens() {
+    }
+
+    /**
+     * Returns the distinct tokens of a text, in order of first occurrence.
+     *
+     * @param text the message or search keywords; may be {@code null}
+     * @return the lowercased tokens; empty if there are none
+     */
+    public static List<String> of(String text) {
+        if (text == null || text.isEmpty())
+            return List.of();
+
+        Set<String> tokens = new LinkedHashSet<>();
+        int length = text.length();
+        int i = 0;
+        while (i < length && tokens.size() < MAX_TOKENS) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i)))
+                i++;
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i)))
+                i++;
+            if (i - start >= MIN_LENGTH)
+                tokens.add(text.substring(start, Math.min(i, start + MAX_LENGTH)).toLowerCase(Locale.ROOT));
+        }
+        return new ArrayList<>(tokens);
+    }
+}
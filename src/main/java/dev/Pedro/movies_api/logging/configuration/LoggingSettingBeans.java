@@ -1,14 +1,26 @@
 package dev.Pedro.movies_api.logging.configuration;
 
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
+import dev.Pedro.movies_api.logging.AdaptiveBatchController;
+import dev.Pedro.movies_api.logging.sink.FileLogSink;
+import dev.Pedro.movies_api.logging.sink.LogCollectionLayout;
+import dev.Pedro.movies_api.logging.sink.LogCountRecorder;
+import dev.Pedro.movies_api.logging.sink.LogSink;
+import dev.Pedro.movies_api.logging.sink.LogTemplateDictionary;
+import dev.Pedro.movies_api.logging.sink.MongoLogSink;
+import dev.Pedro.movies_api.logging.sink.NoopLogSink;
 import dev.Pedro.movies_api.model.LogEvent;
 
 /**
@@ -50,10 +62,117 @@ public class LoggingSettingBeans {
                 threadProperties.getKeepAliveSeconds(),
                 TimeUnit.SECONDS,
                 new LinkedBlockingQueue<>(),
-                Executors.defaultThreadFactory(),
+                namedThreads("log-drain-", false),
                 new ThreadPoolExecutor.CallerRunsPolicy());
     }
 
+    /**
+     * Creates a fixed-size {@link ThreadPoolExecutor} bean named
+     * "logWriterExecutor" that runs the MongoDB writes of log batches.
+     * <p>
+     * Its size matches {@code logging.max-in-flight-batches}, so the number of
+     * concurrent writes towards MongoDB stays capped and log persistence no
+     * longer borrows threads from the common {@code ForkJoinPool}.
+     * </p>
+     *
+     * @param writerProperties configuration properties providing the in-flight
+     *                         window size
+     * @return a configured ThreadPoolExecutor instance.
+     */
+    @Bean(name = "logWriterExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor logWriterExecutor(LoggingVariables writerProperties) {
+        int threads = Math.max(1, writerProperties.getMaxInFlightBatches());
+        return new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                namedThreads("log-writer-", false));
+    }
+
+    /**
+     * Creates a single-threaded {@link ScheduledExecutorService} bean named
+     * "logSpillExecutor" that replays spilled log segments back into MongoDB.
+     *
+     * @return a configured ScheduledThreadPoolExecutor instance.
+     */
+    @Bean(name = "logSpillExecutor", destroyMethod = "shutdown")
+    public ScheduledExecutorService logSpillExecutor() {
+        return new ScheduledThreadPoolExecutor(1, namedThreads("log-spill-", true));
+    }
+
+    /**
+     * Creates a single-threaded {@link ScheduledExecutorService} bean named
+     * "logMaintenanceExecutor" that runs periodic upkeep of the log collections,
+     * such as retention.
+     *
+     * @return a configured ScheduledThreadPoolExecutor instance.
+     */
+    @Bean(name = "logMaintenanceExecutor", destroyMethod = "shutdown")
+    public ScheduledExecutorService logMaintenanceExecutor() {
+        return new ScheduledThreadPoolExecutor(1, namedThreads("log-maintenance-", true));
+    }
+
+    /**
+     * Creates a single-threaded {@link ScheduledExecutorService} bean named
+     * "logTailExecutor" that sends live log events to tail subscribers.
+     *
+     * @return a configured ScheduledThreadPoolExecutor instance.
+     */
+    @Bean(name = "logTailExecutor", destroyMethod = "shutdown")
+    public ScheduledExecutorService logTailExecutor() {
+        return new ScheduledThreadPoolExecutor(1, namedThreads("log-tail-", true));
+    }
+
+    /**
+     * Creates a {@link ThreadPoolExecutor} bean named "logTailSendExecutor" that
+     * sends queued live log events to tail subscribers.
+     * <p>
+     * Each subscriber has at most one send running, and the pool has a thread
+     * per allowed subscriber, so a client that reads slowly only holds up its
+     * own thread. Idle threads are released after a minute.
+     * </p>
+     *
+     * @param tailProperties configuration properties providing the maximum
+     *                       number of subscribers
+     * @return a configured ThreadPoolExecutor instance.
+     */
+    @Bean(name = "logTailSendExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor logTailSendExecutor(LoggingVariables tailProperties) {
+        int threads = Math.max(1, tailProperties.getTail().getMaxSubscribers());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                namedThreads("log-tail-send-", true));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates a fixed-size {@link ThreadPoolExecutor} bean named
+     * "logSearchExecutor" that queries the daily log collections of a search in
+     * parallel.
+     *
+     * @param searchProperties configuration properties providing the search
+     *                         parallelism
+     * @return a configured ThreadPoolExecutor instance.
+     */
+    @Bean(name = "logSearchExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor logSearchExecutor(LoggingVariables searchProperties) {
+        int threads = Math.max(1, searchProperties.getStorage().getSearchParallelism());
+        return new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                namedThreads("log-search-", true));
+    }
+
     /**
      * Creates a bounded {@link BlockingQueue} ({@link LinkedBlockingQueue}) bean
      * named "logBuffer" to hold {@link LogEvent} instances.
@@ -69,4 +188,62 @@ public class LoggingSettingBeans {
     public BlockingQueue<LogEvent> logBuffer(LoggingVariables bufferProperties) {
         return new LinkedBlockingQueue<>(bufferProperties.getBufferCapacity());
     }
+
+    /**
+     * Creates a bounded {@link BlockingQueue} ({@link LinkedBlockingQueue}) bean
+     * named "logPriorityBuffer" holding the reserved capacity for {@code WARN}
+     * and {@code ERROR} {@link LogEvent} instances. It is drained before the
+     * standard "logBuffer", so errors are flushed first and are never pushed
+     * out by lower-level events.
+     *
+     * @param bufferProperties configuration properties providing the priority
+     *                         capacity
+     * @return a LinkedBlockingQueue with the configured priority capacity
+     */
+    @Bean
+    public BlockingQueue<LogEvent> logPriorityBuffer(LoggingVariables bufferProperties) {
+        return new LinkedBlockingQueue<>(bufferProperties.getPriorityCapacity());
+    }
+
+    /**
+     * Creates the {@link LogSink} bean named "logSink" that receives the
+     * batches drained from the log buffer, chosen with
+     * {@code logging.sink.type}: MongoDB, local segment files, or nothing.
+     * The sink is closed when the bean is destroyed, after the final flush.
+     *
+     * @param sinkProperties  configuration properties selecting the sink
+     * @param mongoTemplate   the template used by the MongoDB sink
+     * @param batchController the controller fed by the MongoDB sink
+     * @param layout          the layout of the MongoDB log collection
+     * @param countRecorder   the recorder of the per-minute log counters
+     * @param templates       the dictionary of message templates
+     * @return the configured log sink
+     */
+    @Bean(name = "logSink", destroyMethod = "close")
+    public LogSink logSink(LoggingVariables sinkProperties, MongoTemplate mongoTemplate,
+            AdaptiveBatchController batchController, LogCollectionLayout layout, LogCountRecorder countRecorder,
+            LogTemplateDictionary templates) {
+        return switch (sinkProperties.getSink().getType()) {
+            case MONGO -> new MongoLogSink(mongoTemplate, sinkProperties, batchController, layout, countRecorder,
+                    templates);
+            case FILE -> new FileLogSink(sinkProperties);
+            case NOOP -> new NoopLogSink();
+        };
+    }
+
+    /**
+     * Creates a thread factory naming its threads {@code <prefix>N}, so each
+     * logging pool is recognisable in thread dumps. Daemon threads never hold
+     * the JVM open on shutdown; the drain and writer pools are not daemons, so
+     * a batch being written is not cut off.
+     *
+     * @param prefix the thread name prefix, such as {@code "log-writer-"}
+     * @param daemon whether the threads are daemon threads
+     * @return the thread factory
+     */
+    private static ThreadFactory namedThreads(String prefix, boolean daemon) {
+        CustomizableThreadFactory factory = new CustomizableThreadFactory(prefix);
+        factory.setDaemon(daemon);
+        return factory;
+    }
 }
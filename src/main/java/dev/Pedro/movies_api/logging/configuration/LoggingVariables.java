@@ -3,6 +3,14 @@ package dev.Pedro.movies_api.logging.configuration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import com.mongodb.client.model.TimeSeriesGranularity;
+
+import dev.Pedro.movies_api.logging.LogOverflowPolicy;
+import dev.Pedro.movies_api.logging.LogSinkType;
+import dev.Pedro.movies_api.logging.LogStorageMode;
 import lombok.Data;
 
 /**
@@ -28,9 +36,134 @@ import lombok.Data;
  * <li><strong>Log Batching:</strong>
  * <ul>
  * <li>{@code logging.batch-size}</li>
+ * <li>{@code logging.max-linger-ms}</li>
  * <li>{@code logging.max-retries}</li>
  * <li>{@code logging.retry-delay-ms}</li>
  * <li>{@code logging.buffer-capacity}</li>
+ * <li>{@code logging.max-in-flight-batches}</li>
+ * <li>{@code logging.probe-batch-size}</li>
+ * <li>{@code logging.write-concern}</li>
+ * </ul>
+ * </li>
+ * <li><strong>Backpressure:</strong>
+ * <ul>
+ * <li>{@code logging.priority-capacity}</li>
+ * <li>{@code logging.overflow-policy}</li>
+ * <li>{@code logging.overflow-block-timeout-ms}</li>
+ * <li>{@code logging.overflow-sample-watermark}</li>
+ * <li>{@code logging.overflow-sample-ratio}</li>
+ * <li>{@code logging.drop-summary-interval-ms}</li>
+ * </ul>
+ * </li>
+ * <li><strong>Adaptive batching:</strong>
+ * <ul>
+ * <li>{@code logging.adaptive.enabled}</li>
+ * <li>{@code logging.adaptive.min-batch-size}</li>
+ * <li>{@code logging.adaptive.max-batch-size}</li>
+ * <li>{@code logging.adaptive.min-linger-ms}</li>
+ * <li>{@code logging.adaptive.max-linger-ms}</li>
+ * <li>{@code logging.adaptive.target-latency-ms}</li>
+ * <li>{@code logging.adaptive.additive-step}</li>
+ * <li>{@code logging.adaptive.decrease-factor}</li>
+ * </ul>
+ * </li>
+ * <li><strong>Rate limiting:</strong>
+ * <ul>
+ * <li>{@code logging.rate-limit.enabled}</li>
+ * <li>{@code logging.rate-limit.logger-permits-per-second}</li>
+ * <li>{@code logging.rate-limit.logger-burst}</li>
+ * <li>{@code logging.rate-limit.template-permits-per-second}</li>
+ * <li>{@code logging.rate-limit.template-burst}</li>
+ * <li>{@code logging.rate-limit.sample-probability}</li>
+ * <li>{@code logging.rate-limit.loggers.*}</li>
+ * </ul>
+ * </li>
+ * <li><strong>Repeat aggregation:</strong>
+ * <ul>
+ * <li>{@code logging.repeat.enabled}</li>
+ * <li>{@code logging.repeat.window-ms}</li>
+ * <li>{@code logging.repeat.max-fingerprints}</li>
+ * </ul>
+ * </li>
+ * <li><strong>Spill-over (disk overflow tier):</strong>
+ * <ul>
+ * <li>{@code logging.spill.enabled}</li>
+ * <li>{@code logging.spill.directory}</li>
+ * <li>{@code logging.spill.segment-size-bytes}</li>
+ * <li>{@code logging.spill.max-segments}</li>
+ * <li>{@code logging.spill.replay-interval-ms}</li>
+ * <li>{@code logging.spill.replay-batch-size}</li>
+ * </ul>
+ * </li>
+ * <li><strong>Sink:</strong>
+ * <ul>
+ * <li>{@code logging.sink.type}</li>
+ * <li>{@code logging.sink.directory}</li>
+ * <li>{@code logging.sink.segment-size-bytes}</li>
+ * <li>{@code logging.sink.max-segments}</li>
+ * <li>{@code logging.sink.force}</li>
+ * </ul>
+ * </li>
+ * <li><strong>Storage:</strong>
+ * <ul>
+ * <li>{@code logging.storage.mode}</li>
+ * <li>{@code logging.storage.granularity}</li>
+ * <li>{@code logging.storage.expire-after-seconds}</li>
+ * <li>{@code logging.storage.retention-check-interval-ms}</li>
+ * <li>{@code logging.storage.search-parallelism}</li>
+ * </ul>
+ * </li>
+ * <li><strong>Search:</strong>
+ * <ul>
+ * <li>{@code logging.search.default-limit}</li>
+ * <li>{@code logging.search.max-limit}</li>
+ * <li>{@code logging.search.max-time-ms}</li>
+ * <li>{@code logging.search.export-batch-size}</li>
+ * <li>{@code logging.search.export-timeout-ms}</li>
+ * </ul>
+ * </li>
+ * <li><strong>Statistics:</strong>
+ * <ul>
+ * <li>{@code logging.statistics.enabled}</li>
+ * <li>{@code logging.statistics.max-buckets}</li>
+ * </ul>
+ * </li>
+ * <li><strong>Live tail:</strong>
+ * <ul>
+ * <li>{@code logging.tail.max-subscribers}</li>
+ * <li>{@code logging.tail.buffer-size}</li>
+ * <li>{@code logging.tail.flush-interval-ms}</li>
+ * <li>{@code logging.tail.timeout-ms}</li>
+ * </ul>
+ * </li>
+ * <li><strong>Recent-logs ring:</strong>
+ * <ul>
+ * <li>{@code logging.recent.enabled}</li>
+ * <li>{@code logging.recent.capacity}</li>
+ * <li>{@code logging.recent.max-loggers}</li>
+ * </ul>
+ * </li>
+ * <li><strong>Message templates:</strong>
+ * <ul>
+ * <li>{@code logging.templates.enabled}</li>
+ * <li>{@code logging.templates.max-templates}</li>
+ * </ul>
+ * </li>
+ * <li><strong>Rollups:</strong>
+ * <ul>
+ * <li>{@code logging.rollup.enabled}</li>
+ * <li>{@code logging.rollup.interval-ms}</li>
+ * <li>{@code logging.rollup.settle-ms}</li>
+ * <li>{@code logging.rollup.lookback-hours}</li>
+ * <li>{@code logging.rollup.top-messages}</li>
+ * <li>{@code logging.rollup.expire-after-seconds}</li>
+ * <li>{@code logging.rollup.max-hours}</li>
+ * </ul>
+ * </li>
+ * <li><strong>Shutdown:</strong>
+ * <ul>
+ * <li>{@code logging.shutdown.deadline-ms}</li>
+ * <li>{@code logging.shutdown.batch-size}</li>
  * </ul>
  * </li>
  * </ul>
@@ -52,6 +185,219 @@ public class LoggingVariables {
 
     // Log batching
     private int batchSize;
+    private long maxLingerMs = 200;
     private int retryDelayMs;
     private int bufferCapacity;
-}
\ No newline at end of file
+    private int maxInFlightBatches = 4;
+    private int probeBatchSize = 10;
+    private String writeConcern = "W1";
+
+    // Backpressure
+    private int priorityCapacity = 1000;
+    private LogOverflowPolicy overflowPolicy = LogOverflowPolicy.DROP_NEWEST;
+    private long overflowBlockTimeoutMs = 5;
+    private double overflowSampleWatermark = 0.8;
+    private double overflowSampleRatio = 0.1;
+    private long dropSummaryIntervalMs = 10000;
+
+    // Adaptive batching
+    private final Adaptive adaptive = new Adaptive();
+
+    // Rate limiting
+    private final RateLimit rateLimit = new RateLimit();
+
+    // Repeat aggregation
+    private final Repeat repeat = new Repeat();
+
+    // Spill-over
+    private final Spill spill = new Spill();
+
+    // Sink
+    private final Sink sink = new Sink();
+
+    // Storage
+    private final Storage storage = new Storage();
+
+    // Search
+    private final Search search = new Search();
+
+    // Statistics
+    private final Statistics statistics = new Statistics();
+
+    // Live tail
+    private final Tail tail = new Tail();
+
+    // Recent-logs ring
+    private final Recent recent = new Recent();
+
+    // Message templates
+    private final Templates templates = new Templates();
+
+    // Rollups
+    private final Rollup rollup = new Rollup();
+
+    // Shutdown
+    private final Shutdown shutdown = new Shutdown();
+
+    /**
+     * Bounds and tuning of the AIMD controller that sizes log batches from the
+     * observed MongoDB write latency.
+     */
+    @Data
+    public static class Adaptive {
+        private boolean enabled = true;
+        private int minBatchSize = 50;
+        private int maxBatchSize = 5000;
+        private long minLingerMs = 20;
+        private long maxLingerMs = 1000;
+        private long targetLatencyMs = 250;
+        private int additiveStep = 50;
+        private double decreaseFactor = 0.5;
+    }
+
+    /**
+     * Token-bucket settings applied per logger and per message template before
+     * events reach the MongoDB log buffer.
+     */
+    @Data
+    public static class RateLimit {
+        private boolean enabled = true;
+        private double loggerPermitsPerSecond = 500;
+        private double loggerBurst = 1000;
+        private double templatePermitsPerSecond = 50;
+        private double templateBurst = 100;
+        private double sampleProbability = 0.01;
+        private Map<String, Double> loggers = new HashMap<>();
+    }
+
+    /**
+     * Window during which identical events are collapsed into one summary, and
+     * the number of fingerprints tracked at once.
+     */
+    @Data
+    public static class Repeat {
+        private boolean enabled = true;
+        private long windowMs = 5000;
+        private int maxFingerprints = 1024;
+    }
+
+    /**
+     * Settings of the on-disk segment store used when the in-memory buffer is
+     * full or MongoDB is unreachable.
+     */
+    @Data
+    public static class Spill {
+        private boolean enabled = true;
+        private String directory = "logs/movies-api/spill";
+        private int segmentSizeBytes = 16 * 1024 * 1024;
+        private int maxSegments = 64;
+        private long replayIntervalMs = 1000;
+        private int replayBatchSize = 500;
+    }
+
+    /**
+     * Destination of the log pipeline and, for {@link LogSinkType#FILE}, the
+     * location, size and durability of its segment files.
+     */
+    @Data
+    public static class Sink {
+        private LogSinkType type = LogSinkType.MONGO;
+        private String directory = "logs/events";
+        private long segmentSizeBytes = 64L * 1024 * 1024;
+        private int maxSegments = 16;
+        private boolean force = false;
+    }
+
+    /**
+     * Layout and retention of the log event collection. A retention of
+     * {@code 0} keeps events forever.
+     */
+    @Data
+    public static class Storage {
+        private LogStorageMode mode = LogStorageMode.STANDARD;
+        private TimeSeriesGranularity granularity = TimeSeriesGranularity.SECONDS;
+        private long expireAfterSeconds = 0;
+        private long retentionCheckIntervalMs = 3600000;
+        private int searchParallelism = 4;
+    }
+
+    /**
+     * Page size bounds and server-side time limit of log searches, and the
+     * cursor batch size and request timeout of exports.
+     */
+    @Data
+    public static class Search {
+        private int defaultLimit = 100;
+        private int maxLimit = 1000;
+        private long maxTimeMs = 5000;
+        private int exportBatchSize = 1000;
+        private long exportTimeoutMs = 1800000;
+    }
+
+    /**
+     * Per-minute log counters and the size bound of histograms built from
+     * them.
+     */
+    @Data
+    public static class Statistics {
+        private boolean enabled = true;
+        private int maxBuckets = 10000;
+    }
+
+    /**
+     * Limits of the Server-Sent Events live log tail.
+     */
+    @Data
+    public static class Tail {
+        private int maxSubscribers = 16;
+        private int bufferSize = 1000;
+        private long flushIntervalMs = 250;
+        private long timeoutMs = 1800000;
+    }
+
+    /**
+     * Size of the in-memory ring of recent log events, in events, and of its
+     * logger index, in distinct loggers.
+     */
+    @Data
+    public static class Recent {
+        private boolean enabled = false;
+        private int capacity = 50000;
+        private int maxLoggers = 1024;
+    }
+
+    /**
+     * Storage of messages logged with arguments as a template id and the
+     * arguments, and the number of distinct templates interned.
+     */
+    @Data
+    public static class Templates {
+        private boolean enabled = true;
+        private int maxTemplates = 10000;
+    }
+
+    /**
+     * Schedule and retention of the hourly log rollups. Rollups older than
+     * {@code expireAfterSeconds} are removed by a TTL index; {@code 0} keeps
+     * them forever.
+     */
+    @Data
+    public static class Rollup {
+        private boolean enabled = true;
+        private long intervalMs = 900000;
+        private long settleMs = 300000;
+        private int lookbackHours = 24;
+        private int topMessages = 5;
+        private long expireAfterSeconds = 0;
+        private int maxHours = 8784;
+    }
+
+    /**
+     * Time budget and batch size of the final flush to MongoDB on shutdown.
+     */
+    @Data
+    public static class Shutdown {
+        private long deadlineMs = 10000;
+        private int batchSize = 5000;
+    }
+}
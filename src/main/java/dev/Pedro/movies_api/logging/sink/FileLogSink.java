@@ -0,0 +1,199 @@
+package dev.Pedro.movies_api.logging.sink;
+
+import dev.Pedro.movies_api.logging.codec.LogEventCodec;
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.model.LogEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Log sink that appends batches to segment files on the local disk, for
+ * environments without a log database.
+ * <p>
+ * Events are encoded with {@link LogEventCodec}, in its flat layout with the
+ * formatted message, and written as {@code [length][crc32c][bson]} records,
+ * the record format of the spill store. A batch is encoded into one buffer and
+ * written with a single {@link FileChannel} write at the end of the current
+ * segment, {@code events-<sequence>.seg} under {@code logging.sink.directory}.
+ * A segment is sealed once it reaches {@code logging.sink.segment-size-bytes};
+ * only the {@code logging.sink.max-segments} newest segments are kept. With
+ * {@code logging.sink.force}, every batch is forced to disk before the write
+ * returns.
+ * </p>
+ */
+@Slf4j
+public class FileLogSink implements LogSink {
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "events-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final LoggingVariables.Sink config;
+    private final Path directory;
+    private final LogEventCodec codec = new LogEventCodec();
+
+    /**
+     * Segment files on disk, oldest first. The last one is being written.
+     */
+    private final Deque<Path> segments = new ArrayDeque<>();
+    private FileChannel channel;
+    private long nextSequence;
+
+    /**
+     * Reused between batches, grown when a batch does not fit.
+     */
+    private ByteBuffer batchBuffer = ByteBuffer.allocate(64 * 1024);
+
+    /**
+     * Creates the sink, continuing the numbering of the segments already in
+     * the directory.
+     *
+     * @param config configuration values holding the sink settings
+     */
+    public FileLogSink(LoggingVariables config) {
+        this.config = config.getSink();
+        this.directory = Paths.get(this.config.getDirectory());
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                        .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .sorted()
+                        .forEach(segments::addLast);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open log sink directory " + directory, e);
+        }
+        if (!segments.isEmpty())
+            nextSequence = sequenceOf(segments.peekLast()) + 1;
+    }
+
+    /**
+     * Appends a batch of log events to the current segment, rolling over to a
+     * new segment first when it is full.
+     *
+     * @param logs the log events to write; ignored if empty
+     * @throws UncheckedIOException if the segment cannot be written
+     */
+    @Override
+    public synchronized void write(List<LogEvent> logs) {
+        if (logs.isEmpty())
+            return;
+
+        ByteBuffer batch = encode(logs);
+        try {
+            if (channel == null || channel.size() >= config.getSegmentSizeBytes())
+                roll();
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            if (config.isForce())
+                channel.force(false);
+        } catch (IOException e) {
+            closeChannel();
+            throw new UncheckedIOException("Cannot write logs to " + directory, e);
+        }
+    }
+
+    /**
+     * Forces and closes the current segment.
+     */
+    @Override
+    public synchronized void close() {
+        if (channel != null) {
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                log.warn("[FileLogSink] Could not flush {}: {}", segments.peekLast(), e.getMessage());
+            }
+            closeChannel();
+        }
+    }
+
+    /**
+     * Encodes a batch as consecutive records in {@link #batchBuffer}.
+     *
+     * @return the buffer, ready to be written
+     */
+    private ByteBuffer encode(List<LogEvent> logs) {
+        batchBuffer.clear();
+        BasicOutputBuffer output = new BasicOutputBuffer(256);
+        CRC32C crc = new CRC32C();
+        for (LogEvent logEvent : logs) {
+            output.truncateToPosition(0);
+            try (BsonBinaryWriter writer = new BsonBinaryWriter(output)) {
+                codec.encode(writer, logEvent, EncoderContext.builder().build());
+            }
+            int length = output.getPosition();
+            if (batchBuffer.remaining() < HEADER_BYTES + length) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(batchBuffer.capacity() * 2,
+                        batchBuffer.position() + HEADER_BYTES + length));
+                grown.put(batchBuffer.flip());
+                batchBuffer = grown;
+            }
+            crc.reset();
+            crc.update(output.getInternalBuffer(), 0, length);
+            batchBuffer.putInt(length)
+                    .putInt((int) crc.getValue())
+                    .put(output.getInternalBuffer(), 0, length);
+        }
+        return batchBuffer.flip();
+    }
+
+    /**
+     * Seals the current segment, opens the next one and deletes the oldest
+     * segments past the budget.
+     */
+    private void roll() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            closeChannel();
+        }
+        Path path = directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, nextSequence++, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        segments.addLast(path);
+
+        while (segments.size() > config.getMaxSegments()) {
+            Path oldest = segments.pollFirst();
+            try {
+                Files.deleteIfExists(oldest);
+            } catch (IOException e) {
+                log.warn("[FileLogSink] Could not delete old segment {}: {}", oldest, e.getMessage());
+            }
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null)
+            return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing left to do with a channel that cannot be closed
+        }
+        channel = null;
+    }
+
+    private static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
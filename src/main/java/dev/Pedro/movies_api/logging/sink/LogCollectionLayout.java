@@ -0,0 +1,270 @@
+package dev.Pedro.movies_api.logging.sink;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.TimeSeriesOptions;
+
+import dev.Pedro.movies_api.logging.LogStorageMode;
+import dev.Pedro.movies_api.logging.codec.LogEventCodec;
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.model.LogEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the physical layout of the {@link LogEvent} collection.
+ * <p>
+ * With {@link LogStorageMode#TIME_SERIES} the collection is created as a
+ * MongoDB time-series collection, bucketed on {@code localDateTime} and on the
+ * {@code meta} field holding level, logger and thread. Events sharing the same
+ * meta values are stored together in compressed buckets, and time-range
+ * queries only open the buckets that overlap the range. Note that MongoDB does
+ * not enforce a unique {@code _id} on time-series collections, so a batch
+ * written again after a timeout may be stored twice.
+ * </p>
+ * <p>
+ * With {@link LogStorageMode#DAILY} every UTC day gets its own collection,
+ * {@code logEvents_yyyyMMdd}, created by the first insert.
+ * </p>
+ * <p>
+ * {@code logging.storage.expire-after-seconds} sets the retention: the
+ * {@code expireAfterSeconds} option of the time-series collection, a TTL
+ * index on {@code localDateTime} for a standard one, or the age past which
+ * {@link LogRetentionJob} drops daily collections.
+ * </p>
+ * <p>
+ * The class also maps search field names to their path in the stored
+ * document, and stored documents back to the flat shape returned by the API,
+ * so callers do not depend on the mode.
+ * </p>
+ */
+@Component
+@Slf4j
+public class LogCollectionLayout {
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final MongoTemplate mongoTemplate;
+    private final LoggingVariables.Storage settings;
+    private final LogTemplateDictionary templates;
+
+    @Getter
+    private final String collectionName;
+
+    @Getter
+    private final LogEventCodec codec;
+
+    /**
+     * @param mongoTemplate the template providing the database
+     * @param config        configuration values such as the storage mode
+     * @param templates     dictionary rendering templated messages
+     */
+    public LogCollectionLayout(MongoTemplate mongoTemplate, LoggingVariables config,
+            LogTemplateDictionary templates) {
+        this.mongoTemplate = mongoTemplate;
+        this.settings = config.getStorage();
+        this.templates = templates;
+        this.collectionName = mongoTemplate.getCollectionName(LogEvent.class);
+        this.codec = new LogEventCodec(isTimeSeries(), true);
+    }
+
+    /**
+     * Creates the collection, its retention settings and its indexes if they
+     * are missing. Runs before the log pipeline starts, since the first insert
+     * would otherwise create a standard collection implicitly. Daily
+     * collections get their indexes from {@link #ensureIndexes(String)} when
+     * the sink first writes to them.
+     */
+    @PostConstruct
+    public void ensureCollection() {
+        if (isDaily())
+            return;
+        try {
+            MongoDatabase db = mongoTemplate.getDb();
+            long retention = settings.getExpireAfterSeconds();
+
+            if (!isTimeSeries()) {
+                if (retention > 0) {
+                    db.getCollection(collectionName).createIndex(Indexes.ascending(LogEventCodec.TIMESTAMP),
+                            new IndexOptions().name("localDateTime_ttl").expireAfter(retention, TimeUnit.SECONDS));
+                }
+            } else {
+                Document existing = db.listCollections().filter(Filters.eq("name", collectionName)).first();
+                if (existing == null) {
+                    CreateCollectionOptions options = new CreateCollectionOptions()
+                            .timeSeriesOptions(new TimeSeriesOptions(LogEventCodec.TIMESTAMP)
+                                    .metaField(LogEventCodec.META)
+                                    .granularity(settings.getGranularity()));
+                    if (retention > 0)
+                        options.expireAfter(retention, TimeUnit.SECONDS);
+                    db.createCollection(collectionName, options);
+                    log.info("[LogCollectionLayout] Created time-series collection {}", collectionName);
+                } else if (!"timeseries".equals(existing.getString("type"))) {
+                    log.warn("[LogCollectionLayout] Collection {} already exists as a standard collection; "
+                            + "rename or drop it to switch to the time-series layout", collectionName);
+                } else if (retention > 0) {
+                    db.runCommand(new Document("collMod", collectionName).append("expireAfterSeconds", retention));
+                }
+            }
+        } catch (MongoException e) {
+            log.warn("[LogCollectionLayout] Could not prepare collection {}: {}", collectionName, e.getMessage());
+        }
+        ensureIndexes(collectionName);
+    }
+
+    /**
+     * Creates the search indexes of a log collection if they are missing:
+     * (level, localDateTime) and (logger, localDateTime) for the equality and
+     * prefix filters, the multikey (messageTokens, localDateTime) for keyword
+     * search, the multikey (mdcAttrs.k, mdcAttrs.v, localDateTime) for MDC
+     * search and (templateId, localDateTime) for template lookups. Each index
+     * is created on its own, so one that the server rejects does not prevent
+     * the others.
+     *
+     * @param collection the collection to index
+     */
+    public void ensureIndexes(String collection) {
+        MongoCollection<Document> target = mongoTemplate.getDb().getCollection(collection);
+        List<List<String>> indexes = List.of(
+                List.of(field("level"), LogEventCodec.TIMESTAMP),
+                List.of(field("logger"), LogEventCodec.TIMESTAMP),
+                List.of(LogEventCodec.MESSAGE_TOKENS, LogEventCodec.TIMESTAMP),
+                List.of(LogEventCodec.MDC_ATTRS + "." + LogEventCodec.MDC_KEY,
+                        LogEventCodec.MDC_ATTRS + "." + LogEventCodec.MDC_VALUE, LogEventCodec.TIMESTAMP),
+                List.of(LogEventCodec.TEMPLATE_ID, LogEventCodec.TIMESTAMP));
+        for (List<String> fields : indexes) {
+            try {
+                target.createIndex(Indexes.ascending(fields));
+            } catch (MongoException e) {
+                log.warn("[LogCollectionLayout] Could not create index on {} of {}: {}", fields, collection,
+                        e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns whether events are stored in a time-series collection.
+     *
+     * @return {@code true} in {@link LogStorageMode#TIME_SERIES} mode
+     */
+    public boolean isTimeSeries() {
+        return settings.getMode() == LogStorageMode.TIME_SERIES;
+    }
+
+    /**
+     * Returns whether events are split into daily collections.
+     *
+     * @return {@code true} in {@link LogStorageMode#DAILY} mode
+     */
+    public boolean isDaily() {
+        return settings.getMode() == LogStorageMode.DAILY;
+    }
+
+    /**
+     * Returns the collection holding events logged at the given time.
+     *
+     * @param timestamp the UTC time of the event; {@code null} means now
+     * @return the daily collection of that day in {@link LogStorageMode#DAILY}
+     *         mode, the single log collection otherwise
+     */
+    public String collectionFor(LocalDateTime timestamp) {
+        if (!isDaily())
+            return collectionName;
+        return collectionName + "_" + DAY.format(timestamp != null ? timestamp : LocalDateTime.now(ZoneOffset.UTC));
+    }
+
+    /**
+     * Returns the collections that may hold events logged between the given
+     * times, oldest first.
+     *
+     * @param after  the lower bound, or {@code null} for no bound
+     * @param before the upper bound, or {@code null} for no bound
+     * @return the existing daily collections overlapping the range in
+     *         {@link LogStorageMode#DAILY} mode, the single log collection
+     *         otherwise
+     */
+    public List<String> collectionsBetween(LocalDateTime after, LocalDateTime before) {
+        if (!isDaily())
+            return List.of(collectionName);
+
+        LocalDate from = after != null ? after.toLocalDate() : LocalDate.MIN;
+        LocalDate to = before != null ? before.toLocalDate() : LocalDate.MAX;
+        return dailyCollections().entrySet().stream()
+                .filter(day -> !day.getKey().isBefore(from) && !day.getKey().isAfter(to))
+                .map(Map.Entry::getValue)
+                .toList();
+    }
+
+    /**
+     * Lists the existing daily collections by day.
+     *
+     * @return the collection names keyed and sorted by their day
+     */
+    public NavigableMap<LocalDate, String> dailyCollections() {
+        NavigableMap<LocalDate, String> days = new TreeMap<>();
+        String prefix = collectionName + "_";
+        for (String name : mongoTemplate.getCollectionNames()) {
+            if (!name.startsWith(prefix))
+                continue;
+            try {
+                days.put(LocalDate.parse(name.substring(prefix.length()), DAY), name);
+            } catch (DateTimeParseException e) {
+                // Not a daily log collection
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Maps a flat {@link LogEvent} field name to its path in the stored
+     * document.
+     *
+     * @param field the field name, such as {@code level}
+     * @return the path to query, such as {@code meta.level}
+     */
+    public String field(String field) {
+        if (isTimeSeries() && LogEventCodec.META_FIELDS.contains(field))
+            return LogEventCodec.META + "." + field;
+        return field;
+    }
+
+    /**
+     * Flattens a stored document to the shape of the standard layout, without
+     * the derived search fields, and rebuilds its message if it was stored as a
+     * template id and arguments.
+     *
+     * @param document the document read from the collection
+     * @return the same document, with the {@code meta} fields moved to the top
+     *         level
+     */
+    public Document toView(Document document) {
+        document.remove(LogEventCodec.MESSAGE_TOKENS);
+        document.remove(LogEventCodec.MDC_ATTRS);
+        if (document.get(LogEventCodec.META) instanceof Document meta) {
+            document.remove(LogEventCodec.META);
+            document.putAll(meta);
+        }
+        return templates.render(document);
+    }
+}
@@ -0,0 +1,129 @@
+package dev.Pedro.movies_api.logging.sink;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.model.LogEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains per-minute log counters in the {@code logCounts} collection.
+ * <p>
+ * After every batch written by {@link MongoLogSink}, the events are counted by
+ * minute, level, logger and thread, and each count is added to its counter
+ * document with one unordered bulk of {@code $inc} upserts. Histograms are then
+ * aggregated from a few counters per minute instead of from the raw logs.
+ * </p>
+ * <p>
+ * The counters are best effort: a batch written twice after a timeout is
+ * counted twice, and a failed update is not retried.
+ * </p>
+ */
+@Component
+@Slf4j
+public class LogCountRecorder {
+
+    public static final String COLLECTION = "logCounts";
+    public static final String MINUTE = "minute";
+    public static final String LEVEL = "level";
+    public static final String LOGGER = "logger";
+    public static final String THREAD = "thread";
+    public static final String COUNT = "count";
+
+    private static final UpdateOptions UPSERT = new UpdateOptions().upsert(true);
+    private static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+
+    private final MongoTemplate mongoTemplate;
+    private final LoggingVariables config;
+
+    /**
+     * Counter key: one document per minute, level, logger and thread.
+     */
+    private record Key(LocalDateTime minute, String level, String logger, String thread) {
+    }
+
+    /**
+     * @param mongoTemplate the template providing the counter collection
+     * @param config        configuration values such as the retention
+     */
+    public LogCountRecorder(MongoTemplate mongoTemplate, LoggingVariables config) {
+        this.mongoTemplate = mongoTemplate;
+        this.config = config;
+    }
+
+    /**
+     * Creates the unique counter index, which also serves time-range queries,
+     * and the TTL index when a retention is configured.
+     */
+    @PostConstruct
+    public void ensureIndexes() {
+        if (!config.getStatistics().isEnabled())
+            return;
+        try {
+            MongoCollection<Document> counters = mongoTemplate.getCollection(COLLECTION);
+            counters.createIndex(Indexes.ascending(MINUTE, LEVEL, LOGGER, THREAD), new IndexOptions().unique(true));
+            long retention = config.getStorage().getExpireAfterSeconds();
+            if (retention > 0) {
+                counters.createIndex(Indexes.ascending(MINUTE),
+                        new IndexOptions().name("minute_ttl").expireAfter(retention, TimeUnit.SECONDS));
+            }
+        } catch (MongoException e) {
+            log.warn("[LogCountRecorder] Could not create indexes of {}: {}", COLLECTION, e.getMessage());
+        }
+    }
+
+    /**
+     * Adds the events of a written batch to their counters. Repeat summaries
+     * and events following suppressed ones count for every occurrence they
+     * stand for, see {@link LogEvent#occurrences()}.
+     *
+     * @param logs the log events that were written
+     */
+    public void record(List<LogEvent> logs) {
+        if (!config.getStatistics().isEnabled() || logs.isEmpty())
+            return;
+
+        Map<Key, Long> counts = new HashMap<>();
+        for (LogEvent logEvent : logs) {
+            LocalDateTime time = logEvent.getLocalDateTime() != null
+                    ? logEvent.getLocalDateTime()
+                    : LocalDateTime.now(ZoneOffset.UTC);
+            counts.merge(new Key(time.truncatedTo(ChronoUnit.MINUTES), logEvent.getLevel(), logEvent.getLogger(),
+                    logEvent.getThread()), logEvent.occurrences(), Long::sum);
+        }
+
+        List<UpdateOneModel<Document>> updates = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> updates.add(new UpdateOneModel<>(
+                Filters.and(
+                        Filters.eq(MINUTE, Date.from(key.minute().toInstant(ZoneOffset.UTC))),
+                        Filters.eq(LEVEL, key.level()),
+                        Filters.eq(LOGGER, key.logger()),
+                        Filters.eq(THREAD, key.thread())),
+                Updates.inc(COUNT, count),
+                UPSERT)));
+        mongoTemplate.getCollection(COLLECTION).bulkWrite(updates, UNORDERED);
+    }
+}
@@ -0,0 +1,86 @@
+package dev.Pedro.movies_api.logging.sink;
+
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background task that enforces retention of daily log collections.
+ * <p>
+ * In {@code DAILY} storage mode, it runs every
+ * {@code logging.storage.retention-check-interval-ms} and drops every daily
+ * collection whose whole day is older than
+ * {@code logging.storage.expire-after-seconds}. Dropping a collection costs the
+ * same whatever its size, unlike deleting its documents one by one.
+ * </p>
+ */
+@Component
+@Slf4j
+public class LogRetentionJob implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final LogCollectionLayout layout;
+    private final MongoTemplate mongoTemplate;
+    private final ScheduledExecutorService executor;
+    private final LoggingVariables.Storage config;
+
+    /**
+     * Creates the retention job.
+     *
+     * @param layout        the layout listing the daily collections
+     * @param mongoTemplate the template used to drop collections
+     * @param executor      the scheduler running log maintenance tasks
+     * @param config        configuration values holding the storage settings
+     */
+    public LogRetentionJob(LogCollectionLayout layout, MongoTemplate mongoTemplate,
+            @Qualifier("logMaintenanceExecutor") ScheduledExecutorService executor, LoggingVariables config) {
+        this.layout = layout;
+        this.mongoTemplate = mongoTemplate;
+        this.executor = executor;
+        this.config = config.getStorage();
+    }
+
+    /**
+     * Schedules the retention task once the application is ready.
+     *
+     * @param event the application ready event
+     */
+    @Override
+    public void onApplicationEvent(@NonNull ApplicationReadyEvent event) {
+        if (!layout.isDaily() || config.getExpireAfterSeconds() <= 0)
+            return;
+
+        executor.scheduleWithFixedDelay(this::dropExpired, 0, config.getRetentionCheckIntervalMs(),
+                TimeUnit.MILLISECONDS);
+        log.debug("LogRetentionJob is ready");
+    }
+
+    /**
+     * Drops the daily collections past the retention age.
+     */
+    void dropExpired() {
+        try {
+            LocalDate cutoff = LocalDateTime.now(ZoneOffset.UTC)
+                    .minusSeconds(config.getExpireAfterSeconds())
+                    .toLocalDate();
+            for (String name : layout.dailyCollections().headMap(cutoff, false).values()) {
+                mongoTemplate.dropCollection(name);
+                log.info("[LogRetentionJob] Dropped expired log collection {}", name);
+            }
+        } catch (Exception e) {
+            log.warn("[LogRetentionJob] Retention check failed: {} - {}", e.getClass().getSimpleName(),
+                    e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package dev.Pedro.movies_api.logging.sink;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+
+import dev.Pedro.movies_api.logging.codec.LogDates;
+import dev.Pedro.movies_api.logging.codec.LogEventCodec;
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import lombok.extern.slf4j.Slf4j;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background task that compacts raw logs into hourly summaries in the
+ * {@code logRollups} collection.
+ * <p>
+ * Every {@code logging.rollup.interval-ms}, each hour that ended at least
+ * {@code logging.rollup.settle-ms} ago and is not rolled up yet is aggregated
+ * into one document per level and logger: the number of logged occurrences,
+ * counting the repeats collapsed into summaries and the events suppressed by
+ * rate limiting, the first and last occurrence, and the
+ * {@code logging.rollup.top-messages} most frequent message templates. Messages stored without a template count as their own
+ * template. The latest rolled-up hour is rolled up again on the next run, to
+ * pick up late logs, and the summaries are written with {@code $merge}, so
+ * running an hour twice replaces its summaries.
+ * </p>
+ * <p>
+ * An hour without logs writes no summary, so the last processed hour is kept
+ * in a watermark document of {@code logRollups}, with the fixed id
+ * {@value #WATERMARK_ID} and no {@code hour} field. It moves forward with
+ * every hour rolled up, so a long stretch without logs is crossed
+ * {@code MAX_HOURS_PER_RUN} hours at a time instead of being rolled up again
+ * on every run.
+ * </p>
+ * <p>
+ * Rollups have their own retention, {@code logging.rollup.expire-after-seconds},
+ * so raw logs can expire after a few days while the summaries stay for
+ * long-range trends.
+ * </p>
+ */
+@Component
+@Slf4j
+public class LogRollupJob implements ApplicationListener<ApplicationReadyEvent> {
+
+    public static final String COLLECTION = "logRollups";
+    public static final String HOUR = "hour";
+    public static final String LEVEL = "level";
+    public static final String LOGGER = "logger";
+    public static final String COUNT = "count";
+    public static final String FIRST = "firstSeen";
+    public static final String LAST = "lastSeen";
+    public static final String TOP_MESSAGES = "topMessages";
+    public static final String MESSAGE = "message";
+    public static final String WATERMARK_ID = "rollupWatermark";
+    public static final String ROLLED_UP_TO = "rolledUpTo";
+
+    /**
+     * Upper bound of hours rolled up in one run, so catching up after a long
+     * pause is spread over several runs.
+     */
+    private static final int MAX_HOURS_PER_RUN = 24;
+
+    /**
+     * Number of logged occurrences a stored event stands for, the same weight
+     * as {@link dev.Pedro.movies_api.model.LogEvent#occurrences()}.
+     */
+    private static final Document OCCURRENCES = new Document("$add", List.of(1,
+            new Document("$ifNull", List.of("$" + LogEventCodec.REPEAT_COUNT, 0)),
+            new Document("$ifNull", List.of("$" + LogEventCodec.SUPPRESSED, 0))));
+
+    private final LogCollectionLayout layout;
+    private final MongoTemplate mongoTemplate;
+    private final ScheduledExecutorService executor;
+    private final LoggingVariables.Rollup config;
+
+    /**
+     * Creates the rollup job.
+     *
+     * @param layout        the layout of the raw log collections
+     * @param mongoTemplate the template used to aggregate the raw logs
+     * @param executor      the scheduler running log maintenance tasks
+     * @param config        configuration values holding the rollup settings
+     */
+    public LogRollupJob(LogCollectionLayout layout, MongoTemplate mongoTemplate,
+            @Qualifier("logMaintenanceExecutor") ScheduledExecutorService executor, LoggingVariables config) {
+        this.layout = layout;
+        this.mongoTemplate = mongoTemplate;
+        this.executor = executor;
+        this.config = config.getRollup();
+    }
+
+    /**
+     * Creates the rollup indexes and schedules the rollup task once the
+     * application is ready.
+     *
+     * @param event the application ready event
+     */
+    @Override
+    public void onApplicationEvent(@NonNull ApplicationReadyEvent event) {
+        if (!config.isEnabled())
+            return;
+
+        try {
+            MongoCollection<Document> rollups = mongoTemplate.getCollection(COLLECTION);
+            rollups.createIndex(Indexes.ascending(HOUR, LEVEL, LOGGER), new IndexOptions().unique(true));
+            if (config.getExpireAfterSeconds() > 0) {
+                rollups.createIndex(Indexes.ascending(HOUR),
+                        new IndexOptions().name("hour_ttl").expireAfter(config.getExpireAfterSeconds(), TimeUnit.SECONDS));
+            }
+        } catch (MongoException e) {
+            log.warn("[LogRollupJob] Could not create indexes of {}: {}", COLLECTION, e.getMessage());
+        }
+
+        executor.scheduleWithFixedDelay(this::rollUp, config.getIntervalMs(), config.getIntervalMs(),
+                TimeUnit.MILLISECONDS);
+        log.debug("LogRollupJob is ready");
+    }
+
+    /**
+     * Rolls up every settled hour since the watermark.
+     */
+    void rollUp() {
+        try {
+            LocalDateTime settled = LocalDateTime.now(ZoneOffset.UTC)
+                    .minus(config.getSettleMs(), ChronoUnit.MILLIS)
+                    .truncatedTo(ChronoUnit.HOURS);
+            LocalDateTime hour = watermark();
+            if (hour == null)
+                hour = latestRollup();
+            if (hour == null)
+                hour = settled.minusHours(config.getLookbackHours());
+
+            int rolled = 0;
+            for (; hour.isBefore(settled) && rolled < MAX_HOURS_PER_RUN; hour = hour.plusHours(1), rolled++) {
+                rollUp(hour);
+                // Even when the hour had no logs and $merge wrote nothing
+                saveWatermark(hour);
+            }
+            if (rolled > 0)
+                log.info("[LogRollupJob] Rolled up {} hours of logs up to {}", rolled, hour);
+        } catch (Exception e) {
+            log.warn("[LogRollupJob] Rollup paused: {} - {}", e.getClass().getSimpleName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Aggregates the raw logs of one hour into {@code logRollups}.
+     *
+     * @param hour the start of the hour, in UTC
+     */
+    void rollUp(LocalDateTime hour) {
+        Date from = LogDates.toDateUTC(hour);
+        Date to = LogDates.toDateUTC(hour.plusHours(1));
+        String level = "$" + layout.field(LEVEL);
+        String logger = "$" + layout.field(LOGGER);
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                context -> new Document("$match", new Document(LogEventCodec.TIMESTAMP,
+                        new Document("$gte", from).append("$lt", to))),
+                context -> new Document("$group", new Document("_id", new Document(LEVEL, level)
+                        .append(LOGGER, logger)
+                        .append(LogEventCodec.TEMPLATE_ID, "$" + LogEventCodec.TEMPLATE_ID)
+                        .append(MESSAGE, "$" + MESSAGE))
+                        .append(COUNT, new Document("$sum", OCCURRENCES))
+                        .append(FIRST, new Document("$min", "$" + LogEventCodec.TIMESTAMP))
+                        .append(LAST, new Document("$max", "$" + LogEventCodec.TIMESTAMP))),
+                context -> new Document("$sort", new Document(COUNT, -1)),
+                context -> new Document("$group", new Document("_id", new Document(LEVEL, "$_id." + LEVEL)
+                        .append(LOGGER, "$_id." + LOGGER))
+                        .append(COUNT, new Document("$sum", "$" + COUNT))
+                        .append(FIRST, new Document("$min", "$" + FIRST))
+                        .append(LAST, new Document("$max", "$" + LAST))
+                        .append(TOP_MESSAGES, new Document("$push",
+                                new Document(LogEventCodec.TEMPLATE_ID, "$_id." + LogEventCodec.TEMPLATE_ID)
+                                        .append(MESSAGE, "$_id." + MESSAGE)
+                                        .append(COUNT, "$" + COUNT)))),
+                context -> new Document("$project", new Document("_id", 0)
+                        .append(HOUR, from)
+                        .append(LEVEL, new Document("$ifNull", List.of("$_id." + LEVEL, "")))
+                        .append(LOGGER, new Document("$ifNull", List.of("$_id." + LOGGER, "")))
+                        .append(COUNT, 1)
+                        .append(FIRST, 1)
+                        .append(LAST, 1)
+                        .append(TOP_MESSAGES, new Document("$slice",
+                                List.of("$" + TOP_MESSAGES, config.getTopMessages())))),
+                context -> new Document("$merge", new Document("into", COLLECTION)
+                        .append("on", List.of(HOUR, LEVEL, LOGGER))
+                        .append("whenMatched", "replace")
+                        .append("whenNotMatched", "insert")))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        mongoTemplate.aggregate(aggregation, layout.collectionFor(hour), Document.class);
+    }
+
+    /**
+     * Returns the last hour processed, or {@code null} before the first run.
+     */
+    private LocalDateTime watermark() {
+        Document watermark = mongoTemplate.findById(WATERMARK_ID, Document.class, COLLECTION);
+        if (watermark == null || watermark.getDate(ROLLED_UP_TO) == null)
+            return null;
+        return LogDates.toLocalDateTime(watermark.getDate(ROLLED_UP_TO));
+    }
+
+    private void saveWatermark(LocalDateTime hour) {
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(WATERMARK_ID)),
+                Update.update(ROLLED_UP_TO, LogDates.toDateUTC(hour)), COLLECTION);
+    }
+
+    /**
+     * Returns the latest rolled-up hour, or {@code null} if there is none.
+     * Used when no watermark was saved yet.
+     */
+    private LocalDateTime latestRollup() {
+        Document latest = mongoTemplate.findOne(
+                new Query().with(Sort.by(Sort.Direction.DESC, HOUR)).limit(1), Document.class, COLLECTION);
+        if (latest == null || latest.getDate(HOUR) == null)
+            return null;
+        return LogDates.toLocalDateTime(latest.getDate(HOUR));
+    }
+}
@@ -0,0 +1,35 @@
+package dev.Pedro.movies_api.logging.sink;
+
+import dev.Pedro.movies_api.model.LogEvent;
+
+import java.util.List;
+
+/**
+ * Destination of the batches drained from the log buffer.
+ * <p>
+ * The sink is chosen with {@code logging.sink.type}; see
+ * {@link dev.Pedro.movies_api.logging.LogSinkType}. Batches reach it through
+ * {@code LoggingService.saveLogs}, which adds the retry, circuit breaker and
+ * time limiter, and directly from the spill replayer and the final flush on
+ * shutdown. Implementations may be called from several writer threads at
+ * once.
+ * </p>
+ */
+public interface LogSink {
+
+    /**
+     * Writes a batch of log events.
+     *
+     * @param logs the log events to write; ignored if empty
+     * @throws RuntimeException if the batch could not be written, so it is
+     *                          retried or requeued
+     */
+    void write(List<LogEvent> logs);
+
+    /**
+     * Releases the resources of the sink. Called once the pipeline is shut
+     * down.
+     */
+    default void close() {
+    }
+}
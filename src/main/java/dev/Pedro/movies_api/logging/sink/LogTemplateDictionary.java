@@ -0,0 +1,213 @@
+package dev.Pedro.movies_api.logging.sink;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+
+import dev.Pedro.movies_api.logging.codec.LogEventCodec;
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.model.LogEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import org.bson.Document;
+import org.slf4j.helpers.MessageFormatter;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Dictionary of the message templates of stored logs, kept in the
+ * {@code logTemplates} collection and cached in memory.
+ * <p>
+ * Events logged with arguments carry their SLF4J template, such as
+ * {@code "Received request to GET the movie with imdbId {}"}. Before a batch is
+ * written, {@link MongoLogSink} interns the templates here: each one gets a
+ * stable 64-bit id, derived from its SHA-256 hash, and is stored once. The
+ * events are then written with that id and their arguments instead of the
+ * formatted message, and the message is only rebuilt, with SLF4J's
+ * {@link MessageFormatter}, when a stored log is read back.
+ * </p>
+ * <p>
+ * At most {@code logging.templates.max-templates} templates are interned by
+ * this instance. Events of further templates, or of templates that could not
+ * be stored, keep their formatted message.
+ * </p>
+ */
+@Component
+@Slf4j
+public class LogTemplateDictionary {
+
+    public static final String COLLECTION = "logTemplates";
+    public static final String TEMPLATE = "template";
+    public static final String FIRST_SEEN = "firstSeen";
+
+    private static final UpdateOptions UPSERT = new UpdateOptions().upsert(true);
+    private static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+
+    private final MongoTemplate mongoTemplate;
+    private final LoggingVariables.Templates config;
+
+    /**
+     * Ids of the templates known to be stored, by template.
+     */
+    private final Map<String, Long> ids = new ConcurrentHashMap<>();
+
+    /**
+     * Templates by id, for rendering.
+     */
+    private final Map<Long, String> templates = new ConcurrentHashMap<>();
+
+    /**
+     * @param mongoTemplate the template providing the dictionary collection
+     * @param config        configuration values such as the dictionary size
+     */
+    public LogTemplateDictionary(MongoTemplate mongoTemplate, LoggingVariables config) {
+        this.mongoTemplate = mongoTemplate;
+        this.config = config.getTemplates();
+    }
+
+    /**
+     * Sets the template id of every event of the batch that has a template,
+     * storing the templates not seen before. If they cannot be stored, their
+     * events are left without an id and keep their formatted message.
+     *
+     * @param logs the log events about to be written
+     */
+    public void intern(List<LogEvent> logs) {
+        if (!config.isEnabled())
+            return;
+
+        Map<String, Long> missing = new HashMap<>();
+        for (LogEvent logEvent : logs) {
+            String template = logEvent.getTemplate();
+            if (template != null && !ids.containsKey(template)
+                    && ids.size() + missing.size() < config.getMaxTemplates())
+                missing.computeIfAbsent(template, LogTemplateDictionary::idOf);
+        }
+
+        if (!missing.isEmpty())
+            store(missing);
+
+        for (LogEvent logEvent : logs) {
+            if (logEvent.getTemplate() != null)
+                logEvent.setTemplateId(ids.get(logEvent.getTemplate()));
+        }
+    }
+
+    /**
+     * Returns the template with the given id.
+     *
+     * @param id the template id
+     * @return the template, or {@code null} if it is unknown
+     */
+    public String template(long id) {
+        String template = templates.get(id);
+        if (template != null)
+            return template;
+
+        try {
+            Document stored = collection().find(Filters.eq("_id", id)).first();
+            if (stored == null)
+                return null;
+            template = stored.getString(TEMPLATE);
+            if (templates.size() < config.getMaxTemplates())
+                templates.put(id, template);
+            return template;
+        } catch (MongoException e) {
+            log.debug("[LogTemplateDictionary] Could not read template {}: {}", id, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the ids of the stored templates matching a regular expression,
+     * case-insensitively.
+     *
+     * @param regex the regular expression
+     * @return the ids of the matching templates, at most
+     *         {@code logging.templates.max-templates}
+     */
+    public List<Long> idsMatching(String regex) {
+        if (!config.isEnabled())
+            return List.of();
+        List<Long> matching = new ArrayList<>();
+        collection().find(Filters.regex(TEMPLATE, Pattern.compile(regex, Pattern.CASE_INSENSITIVE)))
+                .projection(Projections.include("_id"))
+                .limit(config.getMaxTemplates())
+                .forEach(template -> matching.add(template.getLong("_id")));
+        return matching;
+    }
+
+    /**
+     * Rebuilds the message of a stored log written as a template id and
+     * arguments. The arguments are removed; the id is kept, so clients can
+     * group by template.
+     *
+     * @param document the stored log
+     * @return the same document, with its message
+     */
+    public Document render(Document document) {
+        Object id = document.get(LogEventCodec.TEMPLATE_ID);
+        if (!(id instanceof Number templateId))
+            return document;
+
+        List<String> args = document.getList(LogEventCodec.ARGS, String.class, List.of());
+        document.remove(LogEventCodec.ARGS);
+        String template = template(templateId.longValue());
+        if (template != null)
+            document.put(LogEventCodec.MESSAGE, MessageFormatter.basicArrayFormat(template, args.toArray()));
+        return document;
+    }
+
+    private void store(Map<String, Long> missing) {
+        Date now = new Date();
+        List<UpdateOneModel<Document>> upserts = new ArrayList<>(missing.size());
+        missing.forEach((template, id) -> upserts.add(new UpdateOneModel<>(
+                Filters.eq("_id", id),
+                Updates.combine(Updates.setOnInsert(TEMPLATE, template), Updates.setOnInsert(FIRST_SEEN, now)),
+                UPSERT)));
+        try {
+            collection().bulkWrite(upserts, UNORDERED);
+        } catch (MongoException e) {
+            log.debug("[LogTemplateDictionary] Could not store {} templates: {}", missing.size(), e.getMessage());
+            return;
+        }
+        missing.forEach((template, id) -> {
+            ids.put(template, id);
+            templates.put(id, template);
+        });
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+
+    /**
+     * Derives the id of a template from the first 8 bytes of its SHA-256 hash,
+     * so every instance assigns the same id to the same template.
+     */
+    static long idOf(String template) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(template.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(hash).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
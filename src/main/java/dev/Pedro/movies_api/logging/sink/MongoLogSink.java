@@ -0,0 +1,150 @@
+package dev.Pedro.movies_api.logging.sink;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+
+import dev.Pedro.movies_api.logging.AdaptiveBatchController;
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.model.LogEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Log sink that writes batches of {@link LogEvent} objects straight to the
+ * MongoDB driver collection. This is the default {@link LogSink}.
+ * <p>
+ * Every {@code LogEvent} already carries its {@code ObjectId}, so going through
+ * {@code saveAll} makes Spring Data issue one upsert per document. This sink
+ * instead sends each batch as a single unordered {@code insertMany} with the
+ * write concern configured in {@code logging.write-concern}. Events are
+ * serialized by the codec of {@link LogCollectionLayout}, registered in the collection's
+ * {@code CodecRegistry}, so the write path never goes through the reflective
+ * {@code MappingMongoConverter}.
+ * </p>
+ * <p>
+ * Duplicate key errors are ignored: they only happen when a batch is written
+ * again after a retry or timeout, and the documents are already stored.
+ * </p>
+ * <p>
+ * Before a batch is written, the templates of its events are interned in
+ * {@link LogTemplateDictionary}, so templated messages are stored as a
+ * template id and arguments.
+ * </p>
+ * <p>
+ * Once a batch is stored, its events are added to the per-minute counters of
+ * {@link LogCountRecorder}.
+ * </p>
+ */
+@Slf4j
+public class MongoLogSink implements LogSink {
+
+    private static final InsertManyOptions UNORDERED = new InsertManyOptions().ordered(false);
+
+    private final MongoTemplate mongoTemplate;
+    private final CodecRegistry codecRegistry;
+    private final WriteConcern writeConcern;
+    private final LogCollectionLayout layout;
+    private final AdaptiveBatchController batchController;
+    private final LogCountRecorder countRecorder;
+    private final LogTemplateDictionary templates;
+
+    /**
+     * Driver collections by name, built once each.
+     */
+    private final Map<String, MongoCollection<LogEvent>> collections = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the sink bound to the {@link LogEvent} collection.
+     *
+     * @param mongoTemplate   the template providing the driver collection
+     * @param config          configuration values such as the write concern
+     * @param batchController controller fed with the latency of every write
+     * @param layout          layout of the collection and matching codec
+     * @param countRecorder   recorder of the per-minute log counters
+     * @param templates       dictionary of the message templates
+     */
+    public MongoLogSink(MongoTemplate mongoTemplate, LoggingVariables config,
+            AdaptiveBatchController batchController, LogCollectionLayout layout, LogCountRecorder countRecorder,
+            LogTemplateDictionary templates) {
+        this.mongoTemplate = mongoTemplate;
+        this.codecRegistry = CodecRegistries.fromRegistries(
+                CodecRegistries.fromCodecs(layout.getCodec()),
+                mongoTemplate.getDb().getCodecRegistry());
+        this.writeConcern = WriteConcern.valueOf(config.getWriteConcern());
+        this.layout = layout;
+        this.batchController = batchController;
+        this.countRecorder = countRecorder;
+        this.templates = templates;
+    }
+
+    /**
+     * Writes a batch of log events with one unordered {@code insertMany}, or one
+     * per day when the batch spans daily collections. The outcome and latency
+     * are reported to the {@link AdaptiveBatchController}.
+     *
+     * @param logs the log events to write; ignored if empty
+     */
+    @Override
+    public void write(List<LogEvent> logs) {
+        if (logs.isEmpty())
+            return;
+
+        templates.intern(logs);
+
+        long start = System.nanoTime();
+        try {
+            if (layout.isDaily()) {
+                Map<String, List<LogEvent>> byDay = new LinkedHashMap<>();
+                for (LogEvent logEvent : logs) {
+                    byDay.computeIfAbsent(layout.collectionFor(logEvent.getLocalDateTime()),
+                            name -> new ArrayList<>()).add(logEvent);
+                }
+                byDay.forEach((name, events) -> collection(name).insertMany(events, UNORDERED));
+            } else {
+                collection(layout.getCollectionName()).insertMany(logs, UNORDERED);
+            }
+        } catch (MongoBulkWriteException e) {
+            boolean onlyDuplicates = e.getWriteErrors().stream()
+                    .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+            if (!onlyDuplicates || e.getWriteConcernError() != null) {
+                batchController.onBatchFailed();
+                throw e;
+            }
+            log.debug("[MongoLogSink] Skipped {} logs already stored", e.getWriteErrors().size());
+        } catch (RuntimeException e) {
+            batchController.onBatchFailed();
+            throw e;
+        }
+        batchController.onBatchWritten(logs.size(), System.nanoTime() - start);
+
+        try {
+            countRecorder.record(logs);
+        } catch (RuntimeException e) {
+            // The logs are stored, only the histogram misses them
+            log.debug("[MongoLogSink] Could not update log counters: {}", e.getMessage());
+        }
+    }
+
+    private MongoCollection<LogEvent> collection(String name) {
+        return collections.computeIfAbsent(name, n -> {
+            if (layout.isDaily())
+                layout.ensureIndexes(n);
+            return mongoTemplate.getCollection(n)
+                    .withDocumentClass(LogEvent.class)
+                    .withCodecRegistry(codecRegistry)
+                    .withWriteConcern(writeConcern);
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package dev.Pedro.movies_api.logging.sink;
+
+import dev.Pedro.movies_api.model.LogEvent;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log sink that discards every batch, used to benchmark the pipeline without
+ * the cost of a database or disk. Only the number of discarded events is kept.
+ */
+public class NoopLogSink implements LogSink {
+
+    private final LongAdder discarded = new LongAdder();
+
+    /**
+     * Counts and discards a batch of log events.
+     *
+     * @param logs the log events to discard
+     */
+    @Override
+    public void write(List<LogEvent> logs) {
+        discarded.add(logs.size());
+    }
+
+    /**
+     * Returns the number of events discarded so far.
+     *
+     * @return the number of discarded events
+     */
+    public long discarded() {
+        return discarded.sum();
+    }
+}
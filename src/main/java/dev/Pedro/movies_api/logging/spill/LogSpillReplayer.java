@@ -0,0 +1,97 @@
+package dev.Pedro.movies_api.logging.spill;
+
+import dev.Pedro.movies_api.logging.MongoCircuitGate;
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.logging.sink.LogSink;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background task that drains the {@link LogSpillStore} back into the log sink.
+ * <p>
+ * Once the application is ready, it runs every
+ * {@code logging.spill.replay-interval-ms}. Replay only happens while the
+ * {@code mongoCB} circuit breaker is closed, and every batch goes through that
+ * breaker, so a failing database stops the replay instead of being hammered.
+ * Batches are acknowledged only after they are written, which keeps the
+ * replay in order and loses nothing when it is interrupted.
+ * </p>
+ */
+@Component
+@Slf4j
+public class LogSpillReplayer implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final LogSpillStore store;
+    private final LogSink sink;
+    private final CircuitBreaker circuitBreaker;
+    private final MongoCircuitGate circuitGate;
+    private final ScheduledExecutorService executor;
+    private final LoggingVariables.Spill config;
+
+    /**
+     * Creates the replayer.
+     *
+     * @param store                  the spill store to drain
+     * @param sink                   the sink used to write replayed events
+     * @param circuitBreakerRegistry the registry holding the {@code mongoCB}
+     *                               circuit breaker
+     * @param circuitGate            view of the {@code mongoCB} breaker state
+     * @param executor               the scheduler running the replay task
+     * @param config                 configuration values holding the spill
+     *                               settings
+     */
+    public LogSpillReplayer(LogSpillStore store, LogSink sink, CircuitBreakerRegistry circuitBreakerRegistry,
+            MongoCircuitGate circuitGate, @Qualifier("logSpillExecutor") ScheduledExecutorService executor, LoggingVariables config) {
+        this.store = store;
+        this.sink = sink;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("mongoCB");
+        this.circuitGate = circuitGate;
+        this.executor = executor;
+        this.config = config.getSpill();
+    }
+
+    /**
+     * Schedules the replay task once the application is ready.
+     *
+     * @param event the application ready event
+     */
+    @Override
+    public void onApplicationEvent(@NonNull ApplicationReadyEvent event) {
+        if (!config.isEnabled())
+            return;
+
+        executor.scheduleWithFixedDelay(this::replay, config.getReplayIntervalMs(), config.getReplayIntervalMs(),
+                TimeUnit.MILLISECONDS);
+        log.debug("LogSpillReplayer is ready");
+    }
+
+    /**
+     * Replays spilled events while the circuit breaker stays closed.
+     */
+    void replay() {
+        try {
+            int replayed = 0;
+            while (circuitGate.isClosed() && !store.isEmpty()) {
+                LogSpillStore.SpillBatch batch = store.read(config.getReplayBatchSize());
+                if (!batch.isEmpty())
+                    circuitBreaker.executeRunnable(() -> sink.write(batch.events()));
+                store.acknowledge(batch);
+                replayed += batch.events().size();
+            }
+            if (replayed > 0)
+                log.info("[LogSpillReplayer] Replayed {} spilled logs into the log sink", replayed);
+        } catch (Exception e) {
+            log.warn("[LogSpillReplayer] Replay paused: {} - {}", e.getClass().getSimpleName(), e.getMessage());
+        }
+    }
+}
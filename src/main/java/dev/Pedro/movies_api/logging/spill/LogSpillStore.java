@@ -0,0 +1,385 @@
+package dev.Pedro.movies_api.logging.spill;
+
+import dev.Pedro.movies_api.logging.codec.LogEventCodec;
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.model.LogEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead overflow tier for log events that do not fit in the in-memory
+ * {@code MongoLogBuffer}.
+ * <p>
+ * Events are encoded with {@link LogEventCodec} and appended to fixed-size,
+ * memory-mapped segment files under {@code logging.spill.directory}. Each
+ * record is laid out as {@code [length][crc32c][bson]}; the length is written
+ * last, so a torn record reads as the end of the segment. Writes only move
+ * forward inside the mapping, which keeps disk access sequential and avoids a
+ * write system call per event.
+ * </p>
+ * <p>
+ * Segments are read back in append order by {@link LogSpillReplayer} and
+ * deleted once fully replayed. Segments left over from a previous run are
+ * picked up on startup and replayed first. The store is bounded by
+ * {@code logging.spill.max-segments}; once that budget is used up, appends are
+ * rejected.
+ * </p>
+ * <p>
+ * Appends run on request threads, so events are encoded before taking the
+ * store lock, which only covers copying the bytes into the mapping.
+ * </p>
+ */
+@Component
+@Slf4j
+public class LogSpillStore {
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private final LoggingVariables.Spill config;
+    private final Path directory;
+    private final LogEventCodec codec = new LogEventCodec();
+
+    /**
+     * Segments holding data, oldest first. The last one is the write segment
+     * when it is open.
+     */
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private Segment writeSegment;
+    private long nextSequence;
+
+    /**
+     * Position of the next unread record in the oldest segment.
+     */
+    private int readPosition;
+
+    /**
+     * Creates the store and recovers the segments left on disk by a previous
+     * run.
+     *
+     * @param config configuration values holding the spill settings
+     */
+    public LogSpillStore(LoggingVariables config) {
+        this.config = config.getSpill();
+        this.directory = Paths.get(this.config.getDirectory());
+        if (this.config.isEnabled())
+            recover();
+    }
+
+    /**
+     * Appends a log event to the current segment, rolling over to a new segment
+     * when needed.
+     *
+     * @param logEvent the event to spill
+     * @return {@code true} if the event was written; {@code false} if spilling
+     *         is disabled or the disk budget is exhausted
+     */
+    public boolean append(LogEvent logEvent) {
+        if (!config.isEnabled())
+            return false;
+        return write(encode(logEvent));
+    }
+
+    /**
+     * Appends several log events in order, stopping at the first one that
+     * cannot be written.
+     *
+     * @param logs the events to spill
+     * @return the number of events that were written
+     */
+    public int append(List<LogEvent> logs) {
+        if (!config.isEnabled())
+            return 0;
+
+        List<byte[]> payloads = new ArrayList<>(logs.size());
+        for (LogEvent logEvent : logs) {
+            if (logEvent == null)
+                break;
+            payloads.add(encode(logEvent));
+        }
+
+        synchronized (this) {
+            int written = 0;
+            for (byte[] payload : payloads) {
+                if (!write(payload))
+                    break;
+                written++;
+            }
+            return written;
+        }
+    }
+
+    /**
+     * Writes an encoded event to the current segment, rolling over to a new
+     * segment when needed.
+     *
+     * @return {@code false} if the disk budget is exhausted
+     */
+    private synchronized boolean write(byte[] payload) {
+        int needed = HEADER_BYTES + payload.length;
+        if (needed > config.getSegmentSizeBytes())
+            return false;
+
+        try {
+            if ((writeSegment == null || writeSegment.remaining() < needed) && !roll())
+                return false;
+        } catch (IOException e) {
+            return false;
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        MappedByteBuffer buffer = writeSegment.buffer;
+        int position = writeSegment.writePosition;
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.put(position + HEADER_BYTES, payload);
+        buffer.putInt(position, payload.length);
+        writeSegment.writePosition = position + needed;
+        return true;
+    }
+
+    /**
+     * Reads up to {@code max} events from the oldest segment without removing
+     * them. Fully replayed segments are deleted along the way.
+     *
+     * @param max the maximum number of events to read
+     * @return the batch read; empty when nothing is spilled
+     */
+    public synchronized SpillBatch read(int max) {
+        while (!segments.isEmpty()) {
+            Segment head = segments.peekFirst();
+            List<LogEvent> events = new ArrayList<>(Math.min(max, 1024));
+            int position = readPosition;
+
+            while (events.size() < max && position + HEADER_BYTES <= head.writePosition) {
+                int length = head.buffer.getInt(position);
+                if (length <= 0 || position + HEADER_BYTES + length > head.writePosition)
+                    break;
+
+                ByteBuffer payload = head.buffer.slice(position + HEADER_BYTES, length);
+                CRC32C crc = new CRC32C();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != head.buffer.getInt(position + 4)) {
+                    log.warn("[LogSpillStore] Checksum mismatch in {}, skipping the rest of the segment",
+                            head.path.getFileName());
+                    position = head.writePosition;
+                    break;
+                }
+
+                try (BsonBinaryReader reader = new BsonBinaryReader(payload)) {
+                    events.add(codec.decode(reader, DecoderContext.builder().build()));
+                }
+                position += HEADER_BYTES + length;
+            }
+
+            if (!events.isEmpty() || position != readPosition)
+                return new SpillBatch(events, head, position);
+
+            if (head == writeSegment)
+                break;
+
+            // The oldest segment is fully replayed
+            segments.pollFirst();
+            readPosition = 0;
+            delete(head);
+        }
+        return new SpillBatch(Collections.emptyList(), null, 0);
+    }
+
+    /**
+     * Marks a batch returned by {@link #read(int)} as persisted, so it is not
+     * read again. A segment that is sealed and fully replayed is deleted.
+     *
+     * @param batch the batch that was persisted
+     */
+    public synchronized void acknowledge(SpillBatch batch) {
+        Segment head = segments.peekFirst();
+        if (batch.segment() == null || batch.segment() != head)
+            return;
+        readPosition = batch.end();
+        if (head != writeSegment && readPosition >= head.writePosition) {
+            segments.pollFirst();
+            readPosition = 0;
+            delete(head);
+        }
+    }
+
+    /**
+     * Checks whether there are spilled events left to replay. Does not change
+     * the store.
+     *
+     * @return {@code true} if no spilled events are waiting
+     */
+    public synchronized boolean isEmpty() {
+        if (segments.size() != 1)
+            return segments.isEmpty();
+        return readPosition >= segments.peekFirst().writePosition;
+    }
+
+    /**
+     * Flushes the current write segment to disk.
+     */
+    public synchronized void force() {
+        if (writeSegment != null)
+            writeSegment.buffer.force();
+    }
+
+    /**
+     * Seals the current write segment and opens a new one.
+     *
+     * @return {@code false} if the segment budget is exhausted
+     * @throws IOException if the segment file cannot be created
+     */
+    private boolean roll() throws IOException {
+        if (writeSegment != null) {
+            writeSegment.buffer.force();
+            writeSegment = null;
+        }
+        if (segments.size() >= config.getMaxSegments())
+            return false;
+
+        Files.createDirectories(directory);
+        Path path = directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, nextSequence++, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            writeSegment = new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    config.getSegmentSizeBytes()));
+        }
+        if (segments.isEmpty())
+            readPosition = 0;
+        segments.addLast(writeSegment);
+        return true;
+    }
+
+    /**
+     * Maps the segments found on disk and finds where their valid data ends.
+     */
+    private void recover() {
+        if (!Files.isDirectory(directory))
+            return;
+
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> found = files
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+
+            for (Path path : found) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE)) {
+                    Segment segment = new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                            channel.size()));
+                    segment.writePosition = scanEnd(segment.buffer);
+                    if (segment.writePosition > 0)
+                        segments.addLast(segment);
+                    else
+                        // Nothing to replay
+                        Files.delete(path);
+                }
+                nextSequence = Math.max(nextSequence, sequenceOf(path) + 1);
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Cannot recover log spill segments from " + directory, e);
+        }
+
+        if (!segments.isEmpty())
+            log.info("[LogSpillStore] Recovered {} spill segments to replay", segments.size());
+    }
+
+    private static int scanEnd(MappedByteBuffer buffer) {
+        int position = 0;
+        while (position + HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > buffer.capacity())
+                break;
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private byte[] encode(LogEvent logEvent) {
+        BasicOutputBuffer output = new BasicOutputBuffer(256);
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(output)) {
+            codec.encode(writer, logEvent, EncoderContext.builder().build());
+        }
+        return output.toByteArray();
+    }
+
+    private void delete(Segment segment) {
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete replayed spill segment " + segment.path, e);
+        }
+    }
+
+    /**
+     * A memory-mapped segment file and the end of its written data.
+     */
+    static final class Segment {
+
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+
+        Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        int remaining() {
+            return buffer.capacity() - writePosition;
+        }
+    }
+
+    /**
+     * Events read from a segment together with the position to acknowledge
+     * once they are persisted.
+     *
+     * @param events  the events read, in append order
+     * @param segment the segment they were read from
+     * @param end     the position right after the last event read
+     */
+    public record SpillBatch(List<LogEvent> events, Segment segment, int end) {
+
+        /**
+         * Checks whether the batch carries no events.
+         *
+         * @return {@code true} if there is nothing to persist
+         */
+        public boolean isEmpty() {
+            return events.isEmpty();
+        }
+    }
+}
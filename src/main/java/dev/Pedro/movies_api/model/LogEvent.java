@@ -2,9 +2,12 @@ package dev.Pedro.movies_api.model;
 
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
 import java.util.Map;
 
 import lombok.AllArgsConstructor;
@@ -27,6 +30,9 @@ public class LogEvent {
     @Id
     private ObjectId logId;
 
+    /**
+     * When the event was logged, in UTC.
+     */
     private LocalDateTime localDateTime;
     private String level;
     private String logger;
@@ -34,9 +40,59 @@ public class LogEvent {
     private String message;
     private Map<String, String> mdc;
 
+    /**
+     * Number of events of the same template suppressed by rate limiting since
+     * the previous one was stored.
+     */
+    private long suppressed;
+
+    /**
+     * Number of identical events collapsed into this summary event, between
+     * {@link #firstSeen} and {@link #lastSeen}; {@code 0} for regular events.
+     */
+    private long repeatCount;
+    private LocalDateTime firstSeen;
+    private LocalDateTime lastSeen;
+
+    /**
+     * SLF4J template of the message, such as {@code "Movie {} not found"}, if
+     * it was logged with arguments. Only kept in memory.
+     */
+    @Transient
+    private String template;
+
+    /**
+     * Whether the event was already handed to live tail clients, so a batch
+     * requeued after a failed write is not sent to them twice. Only kept in
+     * memory.
+     */
+    @Transient
+    private boolean published;
+
+    /**
+     * Id of the template in the template dictionary, once interned. Stored
+     * events with an id hold {@link #args} instead of the message.
+     */
+    private Long templateId;
+
+    /**
+     * Arguments of the template, as strings.
+     */
+    private List<String> args;
+
+    /**
+     * Returns the number of logged occurrences this event stands for: itself,
+     * the repeats collapsed into it and the events suppressed before it.
+     *
+     * @return {@code 1 + repeatCount + suppressed}
+     */
+    public long occurrences() {
+        return 1 + repeatCount + suppressed;
+    }
+
     /**
      * Constructs a LogEvent with basic information. MDC is not included.
-     * The timestamp is set to the current time.
+     * The timestamp is set to the current UTC time.
      *
      * @param logId   Unique ID for the log.
      * @param level   Log level.
@@ -46,7 +102,7 @@ public class LogEvent {
      */
     public LogEvent(ObjectId logId, String level, String logger, String thread, String message) {
         this.logId = logId;
-        this.localDateTime = LocalDateTime.now();
+        this.localDateTime = LocalDateTime.now(ZoneOffset.UTC);
         this.level = level;
         this.logger = logger;
         this.thread = thread;
@@ -55,7 +111,7 @@ public class LogEvent {
 
     /**
      * Constructs a LogEvent with MDC context.
-     * The timestamp is set to the current time.
+     * The timestamp is set to the current UTC time.
      *
      * @param logId   Unique ID for the log.
      * @param level   Log level.
@@ -68,7 +124,7 @@ public class LogEvent {
             Map<String, String> mdc) {
 
         this.logId = logId;
-        this.localDateTime = LocalDateTime.now();
+        this.localDateTime = LocalDateTime.now(ZoneOffset.UTC);
         this.level = level;
         this.logger = logger;
         this.thread = thread;
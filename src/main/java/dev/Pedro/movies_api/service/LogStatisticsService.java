@@ -0,0 +1,184 @@
+package dev.Pedro.movies_api.service;
+
+import dev.Pedro.movies_api.dto.request.LogHistogramRequest;
+import dev.Pedro.movies_api.dto.request.LogRollupRequest;
+import dev.Pedro.movies_api.dto.response.LogHistogramBucket;
+import dev.Pedro.movies_api.dto.response.LogRollup;
+import dev.Pedro.movies_api.exception.InvalidLogSearchRequestException;
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.logging.codec.LogDates;
+import dev.Pedro.movies_api.logging.codec.LogEventCodec;
+import dev.Pedro.movies_api.logging.sink.LogCountRecorder;
+import dev.Pedro.movies_api.logging.sink.LogRollupJob;
+import dev.Pedro.movies_api.logging.sink.LogTemplateDictionary;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Service answering log volume questions from the per-minute counters kept by
+ * {@link LogCountRecorder}.
+ * <p>
+ * A histogram sums the counters of the requested range into buckets of
+ * {@code bucketMinutes}, optionally split by level, logger and thread. It reads
+ * at most one counter per minute and combination of level, logger and thread,
+ * never the raw logs, so a six-hour view is a few thousand documents read
+ * through the counter index.
+ * </p>
+ * <p>
+ * Longer ranges are read from the hourly summaries of {@link LogRollupJob},
+ * which outlive the raw logs.
+ * </p>
+ */
+@Service
+public class LogStatisticsService {
+
+    private static final List<String> GROUP_FIELDS = List.of(
+            LogCountRecorder.LEVEL, LogCountRecorder.LOGGER, LogCountRecorder.THREAD);
+
+    private final MongoTemplate mongoTemplate;
+    private final LoggingVariables config;
+    private final LogTemplateDictionary templates;
+
+    /**
+     * Constructor injection of dependencies.
+     *
+     * @param mongoTemplate the template used to aggregate the counters.
+     * @param config        configuration values such as the histogram bounds.
+     * @param templates     the dictionary of message templates.
+     */
+    public LogStatisticsService(MongoTemplate mongoTemplate, LoggingVariables config,
+            LogTemplateDictionary templates) {
+        this.mongoTemplate = mongoTemplate;
+        this.config = config;
+        this.templates = templates;
+    }
+
+    /**
+     * Counts the logs of a time range in buckets of
+     * {@link LogHistogramRequest#getBucketMinutes()}.
+     *
+     * @param request the range, bucket width, filters and grouping
+     * @return one entry per bucket and group with logs, oldest first
+     * @throws InvalidLogSearchRequestException if the range is empty, would
+     *                                          produce more than
+     *                                          {@code logging.statistics.max-buckets}
+     *                                          buckets, or is grouped by an
+     *                                          unknown field
+     */
+    public List<LogHistogramBucket> histogram(LogHistogramRequest request) {
+
+        if (!request.getTo().isAfter(request.getFrom()))
+            throw new InvalidLogSearchRequestException("Histogram range must end after it starts");
+        long buckets = Duration.between(request.getFrom(), request.getTo()).toMinutes() / request.getBucketMinutes();
+        if (buckets > config.getStatistics().getMaxBuckets())
+            throw new InvalidLogSearchRequestException("Histogram would have " + buckets + " buckets, the maximum is "
+                    + config.getStatistics().getMaxBuckets());
+        List<String> groupBy = request.getGroupBy() != null ? request.getGroupBy() : List.of();
+        for (String field : groupBy) {
+            if (!GROUP_FIELDS.contains(field))
+                throw new InvalidLogSearchRequestException("Cannot group logs by " + field);
+        }
+
+        Document match = new Document(LogCountRecorder.MINUTE,
+                new Document("$gte", LogDates.toDateUTC(request.getFrom()))
+                        .append("$lt", LogDates.toDateUTC(request.getTo())));
+        if (request.getLevel() != null && !request.getLevel().isBlank())
+            match.append(LogCountRecorder.LEVEL, request.getLevel().toUpperCase());
+        if (request.getLogger() != null && !request.getLogger().isBlank())
+            match.append(LogCountRecorder.LOGGER,
+                    new Document("$regex", "^" + Pattern.quote(request.getLogger())));
+
+        Document key = new Document("bucket", new Document("$dateTrunc",
+                new Document("date", "$" + LogCountRecorder.MINUTE)
+                        .append("unit", "minute")
+                        .append("binSize", request.getBucketMinutes())));
+        groupBy.forEach(field -> key.append(field, "$" + field));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                context -> new Document("$match", match),
+                context -> new Document("$group", new Document("_id", key)
+                        .append(LogCountRecorder.COUNT, new Document("$sum", "$" + LogCountRecorder.COUNT))),
+                context -> new Document("$sort", new Document("_id.bucket", 1)));
+
+        return mongoTemplate.aggregate(aggregation, LogCountRecorder.COLLECTION, Document.class)
+                .getMappedResults()
+                .stream()
+                .map(this::toBucket)
+                .toList();
+    }
+
+    /**
+     * Returns the hourly log summaries of a time range.
+     *
+     * @param request the range and the level and logger filters
+     * @return one summary per hour, level and logger with logs, oldest first
+     * @throws InvalidLogSearchRequestException if the range is empty or longer
+     *                                          than
+     *                                          {@code logging.rollup.max-hours}
+     */
+    public List<LogRollup> rollups(LogRollupRequest request) {
+
+        if (!request.getTo().isAfter(request.getFrom()))
+            throw new InvalidLogSearchRequestException("Rollup range must end after it starts");
+        long hours = Duration.between(request.getFrom(), request.getTo()).toHours();
+        if (hours > config.getRollup().getMaxHours())
+            throw new InvalidLogSearchRequestException("Rollup range spans " + hours + " hours, the maximum is "
+                    + config.getRollup().getMaxHours());
+
+        Criteria criteria = Criteria.where(LogRollupJob.HOUR)
+                .gte(LogDates.toDateUTC(request.getFrom()))
+                .lt(LogDates.toDateUTC(request.getTo()));
+        if (request.getLevel() != null && !request.getLevel().isBlank())
+            criteria.and(LogRollupJob.LEVEL).is(request.getLevel().toUpperCase());
+        if (request.getLogger() != null && !request.getLogger().isBlank())
+            criteria.and(LogRollupJob.LOGGER).regex("^" + Pattern.quote(request.getLogger()));
+
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, LogRollupJob.HOUR));
+        return mongoTemplate.find(query, Document.class, LogRollupJob.COLLECTION)
+                .stream()
+                .map(this::toRollup)
+                .toList();
+    }
+
+    private LogRollup toRollup(Document result) {
+        List<LogRollup.Message> messages = result.getList(LogRollupJob.TOP_MESSAGES, Document.class, List.of())
+                .stream()
+                .map(this::toRollupMessage)
+                .toList();
+        return new LogRollup(
+                LogDates.toLocalDateTime(result.getDate(LogRollupJob.HOUR)),
+                result.getString(LogRollupJob.LEVEL),
+                result.getString(LogRollupJob.LOGGER),
+                ((Number) result.get(LogRollupJob.COUNT)).longValue(),
+                LogDates.toLocalDateTime(result.getDate(LogRollupJob.FIRST)),
+                LogDates.toLocalDateTime(result.getDate(LogRollupJob.LAST)),
+                messages);
+    }
+
+    private LogRollup.Message toRollupMessage(Document message) {
+        Long templateId = message.get(LogEventCodec.TEMPLATE_ID) instanceof Number id ? id.longValue() : null;
+        String text = templateId != null ? templates.template(templateId) : message.getString(LogRollupJob.MESSAGE);
+        return new LogRollup.Message(templateId, text, ((Number) message.get(LogRollupJob.COUNT)).longValue());
+    }
+
+    private LogHistogramBucket toBucket(Document result) {
+        Document key = result.get("_id", Document.class);
+        return new LogHistogramBucket(
+                LogDates.toLocalDateTime(key.getDate("bucket")),
+                key.getString(LogCountRecorder.LEVEL),
+                key.getString(LogCountRecorder.LOGGER),
+                key.getString(LogCountRecorder.THREAD),
+                ((Number) result.get(LogCountRecorder.COUNT)).longValue());
+    }
+}
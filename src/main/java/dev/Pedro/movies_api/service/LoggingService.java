@@ -1,27 +1,63 @@
 package dev.Pedro.movies_api.service;
 
 import dev.Pedro.movies_api.dto.request.SearchLogRequest;
+import dev.Pedro.movies_api.dto.response.LogSearchPage;
+import dev.Pedro.movies_api.exception.InvalidLogSearchRequestException;
+import dev.Pedro.movies_api.logging.LogDropAccounting;
+import dev.Pedro.movies_api.logging.LogEventPredicate;
+import dev.Pedro.movies_api.logging.LogTailBroadcaster;
 import dev.Pedro.movies_api.logging.MongoLogBuffer;
+import dev.Pedro.movies_api.logging.RecentLogIndex;
+import dev.Pedro.movies_api.logging.codec.LogDates;
+import dev.Pedro.movies_api.logging.codec.LogEventCodec;
+import dev.Pedro.movies_api.logging.codec.LogMessageTokens;
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.logging.sink.LogCollectionLayout;
+import dev.Pedro.movies_api.logging.sink.LogTemplateDictionary;
+import dev.Pedro.movies_api.logging.sink.LogSink;
+import dev.Pedro.movies_api.logging.spill.LogSpillStore;
 import dev.Pedro.movies_api.model.LogEvent;
-import dev.Pedro.movies_api.repository.LogEventRepository;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Service responsible for saving and querying log events in MongoDB.
@@ -32,34 +68,77 @@ import java.util.concurrent.CompletableFuture;
  * (Retry, CircuitBreaker, TimeLimiter).</li>
  * <li>Search functionality using flexible filters including log level,
  * timestamp, thread, logger, MDC, and keywords.</li>
+ * <li>Streaming export of the logs matching the same filters.</li>
+ * <li>Live tail of new logs matching the same filters.</li>
  * <li>Fallback handling that requeues logs in a buffer when persistence
- * fails.</li>
+ * fails, spilling to disk whatever does not fit.</li>
  * </ul>
  */
 @Service
 @Slf4j
 public class LoggingService {
 
-    private final LogEventRepository logEventRepository;
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    private static final JsonWriterSettings EXPORT_JSON = JsonWriterSettings.builder()
+            .outputMode(JsonMode.RELAXED)
+            .build();
+
+    private final LogSink logSink;
     private final MongoLogBuffer buffer;
+    private final LogSpillStore spillStore;
+    private final LogDropAccounting dropAccounting;
 
     private final MongoTemplate mongoTemplate;
+    private final LogCollectionLayout layout;
+    private final LogTemplateDictionary templates;
+    private final LoggingVariables config;
+    private final LogTailBroadcaster tailBroadcaster;
+    private final RecentLogIndex recentIndex;
+    private final Executor writerExecutor;
+    private final Executor searchExecutor;
 
     /**
      * Constructor injection of dependencies.
      *
-     * @param logEventRepository the repository for storing log events.
-     * @param buffer             the buffer used for requeuing failed logs.
+     * @param logSink        the sink that writes batches of log events.
+     * @param buffer         the buffer used for requeuing failed logs.
+     * @param spillStore     the on-disk store for logs that cannot be requeued.
+     * @param dropAccounting the counters of logs that cannot be spilled either.
+     * @param mongoTemplate  the template used to query log events.
+     * @param layout         the layout of the log event collection.
+     * @param templates      the dictionary of message templates.
+     * @param config         configuration values such as the search limits.
+     * @param tailBroadcaster the fan-out of live log events.
+     * @param recentIndex    the in-memory ring of recent log events.
+     * @param writerExecutor the dedicated executor running log writes.
+     * @param searchExecutor the executor querying daily collections in
+     *                       parallel.
      */
-    public LoggingService(LogEventRepository logEventRepository, MongoLogBuffer buffer, MongoTemplate mongoTemplate) {
-        this.logEventRepository = logEventRepository;
+    public LoggingService(LogSink logSink, MongoLogBuffer buffer, LogSpillStore spillStore,
+            LogDropAccounting dropAccounting, MongoTemplate mongoTemplate, LogCollectionLayout layout, LogTemplateDictionary templates,
+            LoggingVariables config, LogTailBroadcaster tailBroadcaster, RecentLogIndex recentIndex,
+            @Qualifier("logWriterExecutor") Executor writerExecutor,
+            @Qualifier("logSearchExecutor") Executor searchExecutor) {
+        this.logSink = logSink;
         this.buffer = buffer;
+        this.spillStore = spillStore;
+        this.dropAccounting = dropAccounting;
         this.mongoTemplate = mongoTemplate;
+        this.layout = layout;
+        this.templates = templates;
+        this.config = config;
+        this.tailBroadcaster = tailBroadcaster;
+        this.recentIndex = recentIndex;
+        this.writerExecutor = writerExecutor;
+        this.searchExecutor = searchExecutor;
     }
 
     /**
-     * Asynchronously saves logs to MongoDB with retry, circuit breaker, and time
-     * limiter protection.
+     * Asynchronously saves logs with retry, circuit breaker, and time limiter
+     * protection. Each batch is written through the configured {@link LogSink},
+     * a single unordered {@code insertMany} for the MongoDB sink, run on the
+     * dedicated {@code logWriterExecutor} whose size caps concurrent writes.
+     * Once written, the batch is added to the {@link RecentLogIndex}.
      *
      * @param logs list of log events to save.
      * @return a CompletableFuture representing the async operation.
@@ -69,21 +148,34 @@ public class LoggingService {
     @TimeLimiter(name = "timelimiter", fallbackMethod = "fallback")
     public CompletableFuture<Void> saveLogs(List<LogEvent> logs) {
         return CompletableFuture.runAsync(() -> {
-            logEventRepository.saveAll(logs);
-        });
+            logSink.write(logs);
+            recentIndex.append(logs);
+        }, writerExecutor);
     }
 
     /**
      * Fallback method used when saveLogs fails due to exceptions or timeouts.
+     * Logs that no longer fit in the buffer are written to the spill store, and
+     * the ones it cannot take are counted as dropped.
+     * <p>
+     * The fallback runs for every failed batch, so it reports nothing through
+     * the logging system: a log call here would go back into the same buffer
+     * it is trying to relieve.
+     * </p>
      *
      * @param logs the logs that failed to save.
      * @param t    the throwable that caused the fallback.
      * @return a completed CompletableFuture.
      */
     public CompletableFuture<Void> fallback(List<LogEvent> logs, Throwable t) {
-        log.warn("[LoggingService] Fallback triggered, requeuing logs {} due to: "
-                + t.getClass().getSimpleName() + " - " + t.getMessage(), logs.size());
-        buffer.requeue(logs);
+        List<LogEvent> rejected = buffer.requeue(logs);
+        if (!rejected.isEmpty()) {
+            recentIndex.markIncomplete();
+            int spilled = spillStore.append(rejected);
+            for (LogEvent lost : rejected.subList(spilled, rejected.size())) {
+                dropAccounting.record(lost);
+            }
+        }
         return CompletableFuture.completedFuture(null);
     }
 
@@ -96,22 +188,290 @@ public class LoggingService {
      * <li>Log level</li>
      * <li>Timestamp range</li>
      * <li>Thread</li>
-     * <li>Logger</li>
-     * <li>MDC (Mapped Diagnostic Context)</li>
-     * <li>Message keywords (case-insensitive)</li>
+     * <li>Logger name prefix</li>
+     * <li>MDC (Mapped Diagnostic Context) entries: logs whose MDC contains
+     * all of them, whatever else it holds</li>
+     * <li>Message keywords (case-insensitive): every word must appear in the
+     * message, matched against the indexed {@code messageTokens}; with
+     * {@code messageRegex}, the keywords are a regular expression instead,
+     * which needs a scan</li>
      * </ul>
-     * Can optionally sort results by timestamp.
+     * Results are paged with a keyset on ({@code localDateTime}, {@code _id}):
+     * oldest first when sorting by timestamp, newest first otherwise. A page
+     * holds at most {@code limit} logs, capped by
+     * {@code logging.search.max-limit}, and every query is bounded by
+     * {@code logging.search.max-time-ms}. The returned cursor resumes the search
+     * right after the last log of the page, so later pages cost the same as
+     * the first.
+     * <p>
+     * With daily collections, only the collections overlapping the timestamp
+     * range are queried, in parallel. They are concatenated in sort order, which
+     * keeps the results in timestamp order.
+     * </p>
+     * <p>
+     * Searches whose {@code timestampAfter} falls inside the window of the
+     * {@link RecentLogIndex} ring are answered from memory, without MongoDB.
+     * </p>
+     *
+     * @param logRequest the search criteria
+     * @return a page of matching {@link Document} objects from MongoDB
+     * @throws InvalidLogSearchRequestException if the cursor is malformed
+     */
+    public LogSearchPage searchLogs(SearchLogRequest logRequest) {
+
+        List<Criteria> criteriaList = buildFilters(logRequest);
+        LocalDateTime after = logRequest.getTimestampAfter();
+        LocalDateTime before = logRequest.getTimestampBefore();
+
+        // Resume after the last log of the previous page
+        boolean ascending = logRequest.isSortByTimestamp();
+        Document cursor = decodeCursor(logRequest.getCursor());
+        if (cursor != null) {
+            Date time = cursor.getDate("localDateTime");
+            ObjectId id = cursor.getObjectId("_id");
+            LocalDateTime resumeAt = LogDates.toLocalDateTime(time);
+            if (ascending) {
+                criteriaList.add(new Criteria().orOperator(
+                        Criteria.where("localDateTime").gt(time),
+                        Criteria.where("localDateTime").is(time).and("_id").gt(id)));
+                after = after == null || resumeAt.isAfter(after) ? resumeAt : after;
+            } else {
+                criteriaList.add(new Criteria().orOperator(
+                        Criteria.where("localDateTime").lt(time),
+                        Criteria.where("localDateTime").is(time).and("_id").lt(id)));
+                before = before == null || resumeAt.isBefore(before) ? resumeAt : before;
+            }
+        }
+
+        LoggingVariables.Search settings = config.getSearch();
+        int limit = logRequest.getLimit() != null
+                ? Math.min(logRequest.getLimit(), settings.getMaxLimit())
+                : settings.getDefaultLimit();
+
+        // Recent logs are answered from memory
+        if (recentIndex.covers(logRequest.getTimestampAfter()))
+            return searchRecent(logRequest, cursor, ascending, limit);
+
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+
+        // One extra log tells whether there is a next page
+        Query query = new Query(allOf(criteriaList))
+                .with(Sort.by(direction, "localDateTime", "_id"))
+                .limit(limit + 1)
+                .maxTime(Duration.ofMillis(settings.getMaxTimeMs()));
+
+        List<String> collections = new ArrayList<>(layout.collectionsBetween(after, before));
+        if (!ascending)
+            Collections.reverse(collections);
+
+        List<Document> logs = collections.size() == 1
+                ? find(query, collections.get(0))
+                : findAll(query, collections);
+
+        if (logs.size() <= limit)
+            return new LogSearchPage(logs, null);
+        List<Document> page = new ArrayList<>(logs.subList(0, limit));
+        return new LogSearchPage(page, encodeCursor(page.get(limit - 1)));
+    }
+
+    /**
+     * Streams every log matching the filters of a {@link SearchLogRequest} as
+     * gzip-compressed NDJSON, one JSON document per line.
+     * <p>
+     * Logs are read through a MongoDB cursor, with a projection of the log
+     * fields and batches of {@code logging.search.export-batch-size}, and
+     * encoded while they arrive, so memory use does not depend on the size of
+     * the export. {@code limit} and {@code cursor} are ignored, and logs are in
+     * the order of {@code sortByTimestamp}, like in
+     * {@link #searchLogs(SearchLogRequest)}.
+     * </p>
+     *
+     * @param logRequest the search criteria
+     * @param out        the stream receiving the gzip data; not closed
+     * @return the number of logs exported
+     * @throws IOException if writing to {@code out} fails
+     */
+    public long exportLogs(SearchLogRequest logRequest, OutputStream out) throws IOException {
+
+        Sort.Direction direction = logRequest.isSortByTimestamp() ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Query query = new Query(allOf(buildFilters(logRequest)))
+                .with(Sort.by(direction, "localDateTime", "_id"))
+                .cursorBatchSize(config.getSearch().getExportBatchSize());
+        // The search-only fields are dropped by toView anyway
+        query.fields().exclude("_id").exclude(LogEventCodec.MESSAGE_TOKENS).exclude(LogEventCodec.MDC_ATTRS);
+
+        List<String> collections = new ArrayList<>(
+                layout.collectionsBetween(logRequest.getTimestampAfter(), logRequest.getTimestampBefore()));
+        if (!logRequest.isSortByTimestamp())
+            Collections.reverse(collections);
+
+        long exported = 0;
+        GZIPOutputStream gzip = new GZIPOutputStream(out, EXPORT_BUFFER_SIZE);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+        for (String collection : collections) {
+            try (Stream<Document> logs = mongoTemplate.stream(query, Document.class, collection)) {
+                Iterator<Document> it = logs.iterator();
+                while (it.hasNext()) {
+                    writer.write(layout.toView(it.next()).toJson(EXPORT_JSON));
+                    writer.write('\n');
+                    exported++;
+                }
+            }
+        }
+        writer.flush();
+        gzip.finish();
+        return exported;
+    }
+
+    /**
+     * Opens a live tail of the new log events matching the filters of a
+     * {@link SearchLogRequest}. Events come from the in-memory
+     * {@link LogTailBroadcaster}, not from MongoDB.
+     *
+     * @param logRequest the search criteria; pagination and sorting are ignored
+     * @return the emitter streaming the matching events
+     * @throws InvalidLogSearchRequestException if a regex filter is invalid or
+     *                                          too many tails are open
+     */
+    public SseEmitter tailLogs(SearchLogRequest logRequest) {
+        return tailBroadcaster.subscribe(predicate(logRequest));
+    }
+
+    /**
+     * Answers a search page from the {@link RecentLogIndex} ring, in the same
+     * order and with the same cursor as the MongoDB search.
+     *
+     * @param logRequest the search criteria
+     * @param cursor     the {@code localDateTime} and {@code _id} to resume
+     *                   after, or {@code null}
+     * @param ascending  whether to sort oldest first
+     * @param limit      the page size
+     * @return the page of matching logs
+     */
+    private LogSearchPage searchRecent(SearchLogRequest logRequest, Document cursor, boolean ascending, int limit) {
+        String level = logRequest.getLevel() != null && !logRequest.getLevel().isBlank()
+                ? logRequest.getLevel().toUpperCase()
+                : null;
+        String logger = logRequest.getLogger() != null && !logRequest.getLogger().isBlank()
+                ? logRequest.getLogger()
+                : null;
+
+        Comparator<LogEvent> order = Comparator
+                .comparing(LogEvent::getLocalDateTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(LogEvent::getLogId, Comparator.nullsFirst(Comparator.naturalOrder()));
+        if (!ascending)
+            order = order.reversed();
+
+        Predicate<LogEvent> filter = predicate(logRequest);
+        if (cursor != null) {
+            LogEvent last = new LogEvent();
+            last.setLocalDateTime(LogDates.toLocalDateTime(cursor.getDate("localDateTime")));
+            last.setLogId(cursor.getObjectId("_id"));
+            Comparator<LogEvent> pageOrder = order;
+            filter = filter.and(event -> pageOrder.compare(event, last) > 0);
+        }
+
+        List<Document> logs = recentIndex.find(level, logger, filter).stream()
+                .sorted(order)
+                .limit(limit + 1L)
+                .map(this::toDocument)
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        if (logs.size() <= limit)
+            return new LogSearchPage(logs, null);
+        List<Document> page = new ArrayList<>(logs.subList(0, limit));
+        return new LogSearchPage(page, encodeCursor(page.get(limit - 1)));
+    }
+
+    /**
+     * Builds the in-memory filter of a search request.
+     *
+     * @throws InvalidLogSearchRequestException if a regex filter is invalid
+     */
+    private LogEventPredicate predicate(SearchLogRequest logRequest) {
+        try {
+            return LogEventPredicate.from(logRequest);
+        } catch (PatternSyntaxException e) {
+            throw new InvalidLogSearchRequestException("Invalid regex: " + e.getDescription());
+        }
+    }
+
+    /**
+     * Converts an in-memory log event to the document shape returned by the
+     * MongoDB search.
+     */
+    private Document toDocument(LogEvent event) {
+        Document document = new Document("_id", event.getLogId());
+        if (event.getLocalDateTime() != null)
+            document.append("localDateTime", LogDates.toDateUTC(event.getLocalDateTime()));
+        document.append("level", event.getLevel())
+                .append("logger", event.getLogger())
+                .append("thread", event.getThread())
+                .append("message", event.getMessage());
+        if (event.getMdc() != null)
+            document.append("mdc", new Document(event.getMdc()));
+        if (event.getSuppressed() > 0)
+            document.append("suppressed", event.getSuppressed());
+        if (event.getRepeatCount() > 0) {
+            document.append("repeatCount", event.getRepeatCount())
+                    .append("firstSeen", LogDates.toDateUTC(event.getFirstSeen()))
+                    .append("lastSeen", LogDates.toDateUTC(event.getLastSeen()));
+        }
+        return document;
+    }
+
+    /**
+     * Runs the query against several log collections in parallel and
+     * concatenates the results in the order of the collections.
+     *
+     * @param query       the query to run
+     * @param collections the collections to query
+     * @return the matching documents in the API shape
+     */
+    private List<Document> findAll(Query query, List<String> collections) {
+        List<CompletableFuture<List<Document>>> parts = collections.stream()
+                .map(name -> CompletableFuture.supplyAsync(() -> find(query, name), searchExecutor))
+                .toList();
+        List<Document> logs = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<Document>> part : parts) {
+                logs.addAll(part.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+        return logs;
+    }
+
+    /**
+     * Runs the query against one log collection.
+     *
+     * @param query      the query to run
+     * @param collection the collection to query
+     * @return the matching documents in the API shape
+     */
+    private List<Document> find(Query query, String collection) {
+        List<Document> logs = mongoTemplate.find(query, Document.class, collection);
+        logs.forEach(layout::toView);
+        return logs;
+    }
+
+    /**
+     * Builds the filters of a {@link SearchLogRequest}, shared by search and
+     * export.
      *
      * @param logRequest the search criteria
-     * @return a list of matching {@link Document} objects from MongoDB
+     * @return one criteria per filter set in the request
      */
-    public List<Document> searchLogs(SearchLogRequest logRequest) {
+    private List<Criteria> buildFilters(SearchLogRequest logRequest) {
 
         List<Criteria> criteriaList = new ArrayList<>();
 
         // Match log level
         if (logRequest.getLevel() != null && !logRequest.getLevel().isBlank()) {
-            criteriaList.add(Criteria.where("level").is(logRequest.getLevel().toUpperCase()));
+            criteriaList.add(Criteria.where(layout.field("level")).is(logRequest.getLevel().toUpperCase()));
         }
 
         // Timestamp filtering logic
@@ -121,59 +481,110 @@ public class LoggingService {
         if (after != null && before != null) {
             criteriaList.add(
                     Criteria.where("localDateTime")
-                            .gte(toDateUTC(after))
-                            .lte(toDateUTC(before)));
+                            .gte(LogDates.toDateUTC(after))
+                            .lte(LogDates.toDateUTC(before)));
         } else if (after != null) {
             criteriaList.add(
-                    Criteria.where("localDateTime").gte(toDateUTC(after)));
+                    Criteria.where("localDateTime").gte(LogDates.toDateUTC(after)));
         } else if (before != null) {
             criteriaList.add(
-                    Criteria.where("localDateTime").lte(toDateUTC(before)));
+                    Criteria.where("localDateTime").lte(LogDates.toDateUTC(before)));
         }
         // Search thread
         if (logRequest.getThread() != null && !logRequest.getThread().isBlank()) {
-            criteriaList.add(Criteria.where("thread").regex(logRequest.getThread(), "i"));
+            criteriaList.add(Criteria.where(layout.field("thread")).regex(logRequest.getThread(), "i"));
         }
 
-        // Search logger
+        // Search logger by prefix, anchored so the logger index can be used
         if (logRequest.getLogger() != null && !logRequest.getLogger().isBlank()) {
-            criteriaList.add(Criteria.where("logger").regex(logRequest.getLogger(), "i"));
+            criteriaList.add(Criteria.where(layout.field("logger")).regex("^" + Pattern.quote(logRequest.getLogger())));
         }
 
-        // Match MDC object (exact match)
+        // Match every given MDC entry, through the indexed key/value pairs
         if (logRequest.getMdc() != null) {
-            criteriaList.add(Criteria.where("mdc").is(logRequest.getMdc()));
+            logRequest.getMdc().forEach((key, value) -> criteriaList.add(
+                    Criteria.where(LogEventCodec.MDC_ATTRS).elemMatch(
+                            Criteria.where(LogEventCodec.MDC_KEY).is(key).and(LogEventCodec.MDC_VALUE).is(value))));
         }
 
-        // Search keywords
+        // Search keywords through the message tokens, or a regex on request
         if (logRequest.getMessageKeywords() != null && !logRequest.getMessageKeywords().isBlank()) {
-            criteriaList.add(Criteria.where("message").regex(logRequest.getMessageKeywords(), "i"));
+            List<String> tokens = LogMessageTokens.of(logRequest.getMessageKeywords());
+            if (logRequest.isMessageRegex() || tokens.isEmpty()) {
+                criteriaList.add(messageRegex(logRequest.getMessageKeywords()));
+            } else {
+                criteriaList.add(Criteria.where(LogEventCodec.MESSAGE_TOKENS).all(tokens));
+            }
         }
 
-        // Build the query
-        Criteria finalCriteria = new Criteria();
-        if (!criteriaList.isEmpty()) {
-            finalCriteria = new Criteria().andOperator(criteriaList.toArray(new Criteria[0]));
-        }
-
-        Query query = new Query(finalCriteria);
+        return criteriaList;
+    }
 
-        // Sort conditionally
-        if (logRequest.isSortByTimestamp()) {
-            query.with(Sort.by(Sort.Direction.ASC, "localDateTime"));
+    /**
+     * Matches a regular expression against the stored messages. Templated
+     * messages are not stored formatted, so for them the expression is matched
+     * against their template and, separately, against each of their
+     * arguments.
+     *
+     * @param regex the regular expression, matched case-insensitively
+     * @return the message filter
+     */
+    private Criteria messageRegex(String regex) {
+        Criteria message = Criteria.where(LogEventCodec.MESSAGE).regex(regex, "i");
+        // Any element of the argument array, such as an imdbId or a username
+        Criteria args = Criteria.where(LogEventCodec.ARGS).regex(regex, "i");
+        List<Long> templateIds;
+        try {
+            templateIds = templates.idsMatching(regex);
+        } catch (PatternSyntaxException e) {
+            throw new InvalidLogSearchRequestException("Invalid regex: " + e.getDescription());
         }
+        if (templateIds.isEmpty())
+            return new Criteria().orOperator(message, args);
+        return new Criteria().orOperator(message, args, Criteria.where(LogEventCodec.TEMPLATE_ID).in(templateIds));
+    }
 
-        return mongoTemplate.find(query, Document.class, "logEvents");
+    /**
+     * Combines filters with {@code $and}.
+     *
+     * @param criteriaList the filters to combine
+     * @return the combined criteria; matches everything if there are none
+     */
+    private Criteria allOf(List<Criteria> criteriaList) {
+        if (criteriaList.isEmpty())
+            return new Criteria();
+        return new Criteria().andOperator(criteriaList.toArray(new Criteria[0]));
     }
 
     /**
-     * Converts a {@link LocalDateTime} to a UTC {@link Date}.
+     * Builds the continuation token pointing after the given log.
      *
-     * @param ldt the LocalDateTime to convert
-     * @return a Date object representing the same instant in UTC
+     * @param last the last log of a page
+     * @return an opaque URL-safe token
      */
-    private Date toDateUTC(LocalDateTime ldt) {
-        return Date.from(ldt.toInstant(ZoneOffset.UTC));
+    private String encodeCursor(Document last) {
+        String key = last.getDate("localDateTime").getTime() + ":" + last.getObjectId("_id").toHexString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a continuation token built by {@link #encodeCursor(Document)}.
+     *
+     * @param cursor the token, or {@code null} for the first page
+     * @return the {@code localDateTime} and {@code _id} to resume after, or
+     *         {@code null} for the first page
+     * @throws InvalidLogSearchRequestException if the token is malformed
+     */
+    private Document decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank())
+            return null;
+        try {
+            String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            return new Document("localDateTime", new Date(Long.parseLong(key[0])))
+                    .append("_id", new ObjectId(key[1]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidLogSearchRequestException("Invalid log search cursor");
+        }
     }
 
 }
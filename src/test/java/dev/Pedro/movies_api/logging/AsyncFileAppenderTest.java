@@ -0,0 +1,117 @@
+package dev.Pedro.movies_api.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+public class AsyncFileAppenderTest {
+
+    @TempDir
+    Path directory;
+
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+    /**
+     * Lets the test hold the writer thread inside its first encode call.
+     */
+    private final CountDownLatch writerBlocked = new CountDownLatch(1);
+    private final CountDownLatch releaseWriter = new CountDownLatch(1);
+
+    private AsyncFileAppender appender;
+
+    private final class BlockingEncoder extends EncoderBase<ILoggingEvent> {
+
+        @Override
+        public byte[] headerBytes() {
+            return null;
+        }
+
+        @Override
+        public byte[] encode(ILoggingEvent event) {
+            writerBlocked.countDown();
+            try {
+                releaseWriter.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return (event.getFormattedMessage() + "\n").getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public byte[] footerBytes() {
+            return null;
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        BlockingEncoder encoder = new BlockingEncoder();
+        encoder.setContext(context);
+        encoder.start();
+
+        appender = new AsyncFileAppender();
+        appender.setContext(context);
+        appender.setName("test");
+        appender.setEncoder(encoder);
+        appender.setFile(directory.resolve("app.log").toString());
+        appender.setQueueSize(10);
+        appender.setDiscardingThreshold(4);
+        appender.setMaxBatchSize(1);
+        appender.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseWriter.countDown();
+        appender.stop();
+    }
+
+    private ILoggingEvent event(Level level, String message) {
+        return new LoggingEvent(getClass().getName(), context.getLogger("dev.Pedro.Api"), level, message, null, null);
+    }
+
+    @Test
+    void testAppend_DiscardsLowLevelsBelowThresholdAndAnythingWhenFull() throws Exception {
+
+        assertTrue(appender.isStarted());
+        appender.doAppend(event(Level.INFO, "first"));
+        assertTrue(writerBlocked.await(2, TimeUnit.SECONDS));
+
+        // 10 slots: INFO is queued while at least 4 slots are free
+        for (int i = 0; i < 10; i++) {
+            appender.doAppend(event(Level.INFO, "info " + i));
+        }
+        assertEquals(7, appender.getQueueDepth());
+        assertEquals(3, appender.getDiscardedCount("INFO"));
+
+        // Errors take the remaining room, then are discarded too
+        for (int i = 0; i < 4; i++) {
+            appender.doAppend(event(Level.ERROR, "error " + i));
+        }
+        assertEquals(10, appender.getQueueDepth());
+        assertEquals(1, appender.getDiscardedCount("ERROR"));
+        assertEquals(0, appender.getDiscardedCount("WARN"));
+
+        releaseWriter.countDown();
+        appender.stop();
+
+        // Everything queued is written on stop
+        assertEquals(11, Files.readAllLines(directory.resolve("app.log")).size());
+    }
+}
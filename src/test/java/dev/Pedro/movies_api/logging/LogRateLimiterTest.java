@@ -0,0 +1,85 @@
+package dev.Pedro.movies_api.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+
+public class LogRateLimiterTest {
+
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+    private LoggingVariables config;
+
+    @BeforeEach
+    void setup() {
+        config = new LoggingVariables();
+        config.getRateLimit().setSampleProbability(0);
+    }
+
+    private ILoggingEvent event(String logger, String message) {
+        return new LoggingEvent(getClass().getName(), context.getLogger(logger), Level.INFO, message, null, null);
+    }
+
+    @Test
+    void testAdmit_EmptyTemplateBucketSuppresses() {
+
+        config.getRateLimit().setTemplatePermitsPerSecond(0.001);
+        config.getRateLimit().setTemplateBurst(2);
+        LogRateLimiter limiter = new LogRateLimiter(config);
+
+        assertEquals(0, limiter.admit(event("dev.Pedro.Api", "GET movie {}")));
+        assertEquals(0, limiter.admit(event("dev.Pedro.Api", "GET movie {}")));
+        assertEquals(LogRateLimiter.SUPPRESSED, limiter.admit(event("dev.Pedro.Api", "GET movie {}")));
+
+        // Other templates of the same logger have their own bucket
+        assertEquals(0, limiter.admit(event("dev.Pedro.Api", "GET review {}")));
+    }
+
+    @Test
+    void testAdmit_ReportsSuppressedCountOnNextEmittedEvent() throws InterruptedException {
+
+        config.getRateLimit().setTemplatePermitsPerSecond(20);
+        config.getRateLimit().setTemplateBurst(1);
+        LogRateLimiter limiter = new LogRateLimiter(config);
+
+        assertEquals(0, limiter.admit(event("dev.Pedro.Api", "tick")));
+        assertEquals(LogRateLimiter.SUPPRESSED, limiter.admit(event("dev.Pedro.Api", "tick")));
+        assertEquals(LogRateLimiter.SUPPRESSED, limiter.admit(event("dev.Pedro.Api", "tick")));
+
+        Thread.sleep(120);
+
+        assertEquals(2, limiter.admit(event("dev.Pedro.Api", "tick")));
+    }
+
+    @Test
+    void testAdmit_LoggerOverrideLimitsEveryTemplate() {
+
+        config.getRateLimit().setLoggerBurst(1);
+        config.getRateLimit().getLoggers().put("dev.Pedro.Noisy", 0.001);
+        LogRateLimiter limiter = new LogRateLimiter(config);
+
+        assertEquals(0, limiter.admit(event("dev.Pedro.Noisy", "first")));
+        assertEquals(LogRateLimiter.SUPPRESSED, limiter.admit(event("dev.Pedro.Noisy", "second")));
+        assertEquals(0, limiter.admit(event("dev.Pedro.Quiet", "second")));
+    }
+
+    @Test
+    void testAdmit_DisabledNeverSuppresses() {
+
+        config.getRateLimit().setEnabled(false);
+        config.getRateLimit().setTemplateBurst(0);
+        LogRateLimiter limiter = new LogRateLimiter(config);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limiter.admit(event("dev.Pedro.Api", "tick")));
+        }
+    }
+}
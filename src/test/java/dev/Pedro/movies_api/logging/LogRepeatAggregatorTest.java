@@ -0,0 +1,133 @@
+package dev.Pedro.movies_api.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.model.LogEvent;
+
+public class LogRepeatAggregatorTest {
+
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+    private LoggingVariables config;
+
+    @BeforeEach
+    void setup() {
+        config = new LoggingVariables();
+        config.getRepeat().setWindowMs(60000);
+    }
+
+    private ILoggingEvent event(Level level, String message, Throwable throwable) {
+        return new LoggingEvent(getClass().getName(), context.getLogger("dev.Pedro.Api"), level, message, throwable,
+                null);
+    }
+
+    @Test
+    void testAdmit_CountsRepeatsInsideTheWindow() {
+
+        LogRepeatAggregator aggregator = new LogRepeatAggregator(config);
+        ILoggingEvent first = event(Level.ERROR, "Movie {} not found", null);
+
+        assertTrue(aggregator.admit(first));
+        for (int i = 0; i < 3; i++) {
+            assertFalse(aggregator.admit(event(Level.ERROR, "Movie {} not found", null)));
+        }
+
+        // The window is still open
+        assertTrue(aggregator.collect(false).isEmpty());
+
+        List<LogRepeatAggregator.Repeat> repeats = aggregator.collect(true);
+        assertEquals(1, repeats.size());
+        assertSame(first, repeats.get(0).first());
+        assertEquals(3, repeats.get(0).count());
+        assertFalse(repeats.get(0).lastSeen().isBefore(repeats.get(0).firstSeen()));
+    }
+
+    @Test
+    void testAdmit_FingerprintIncludesLevelAndExceptionClass() {
+
+        LogRepeatAggregator aggregator = new LogRepeatAggregator(config);
+
+        assertTrue(aggregator.admit(event(Level.ERROR, "Write failed", new IllegalStateException())));
+        assertTrue(aggregator.admit(event(Level.ERROR, "Write failed", new IllegalArgumentException())));
+        assertTrue(aggregator.admit(event(Level.WARN, "Write failed", new IllegalStateException())));
+        assertFalse(aggregator.admit(event(Level.ERROR, "Write failed", new IllegalStateException())));
+    }
+
+    @Test
+    void testAdmit_NewWindowAfterTheOldOneIsOver() throws InterruptedException {
+
+        config.getRepeat().setWindowMs(300);
+        LogRepeatAggregator aggregator = new LogRepeatAggregator(config);
+
+        assertTrue(aggregator.admit(event(Level.INFO, "tick", null)));
+        assertFalse(aggregator.admit(event(Level.INFO, "tick", null)));
+        Thread.sleep(400);
+        assertTrue(aggregator.admit(event(Level.INFO, "tick", null)));
+
+        // The closed window is reported, the new one has no repeats yet
+        List<LogRepeatAggregator.Repeat> repeats = aggregator.collect(false);
+        assertEquals(1, repeats.size());
+        assertEquals(1, repeats.get(0).count());
+        assertTrue(aggregator.collect(true).isEmpty());
+    }
+
+    @Test
+    void testAdmit_EmitsEverythingPastMaxFingerprints() {
+
+        config.getRepeat().setMaxFingerprints(1);
+        LogRepeatAggregator aggregator = new LogRepeatAggregator(config);
+
+        assertTrue(aggregator.admit(event(Level.INFO, "first", null)));
+        assertTrue(aggregator.admit(event(Level.INFO, "second", null)));
+        assertTrue(aggregator.admit(event(Level.INFO, "second", null)));
+        assertFalse(aggregator.admit(event(Level.INFO, "first", null)));
+    }
+
+    @Test
+    void testAdmit_DisabledEmitsEverything() {
+
+        config.getRepeat().setEnabled(false);
+        LogRepeatAggregator aggregator = new LogRepeatAggregator(config);
+
+        assertTrue(aggregator.admit(event(Level.INFO, "tick", null)));
+        assertTrue(aggregator.admit(event(Level.INFO, "tick", null)));
+        assertTrue(aggregator.collect(true).isEmpty());
+    }
+
+    @Test
+    void testRepeatSummaries_CarryCountAndWindow() throws InterruptedException {
+
+        LogRepeatAggregator aggregator = new LogRepeatAggregator(config);
+        MongoLogAppender appender = new MongoLogAppender();
+        appender.setDependencies(null, null, config, null, null, null, null, null, null, null, null, null,
+                aggregator);
+
+        ILoggingEvent first = event(Level.ERROR, "Movie {} not found", null);
+        aggregator.admit(first);
+        Thread.sleep(5);
+        aggregator.admit(event(Level.ERROR, "Movie {} not found", null));
+        aggregator.admit(event(Level.ERROR, "Movie {} not found", null));
+
+        List<LogEvent> summaries = appender.repeatSummaries(true);
+
+        assertEquals(1, summaries.size());
+        LogEvent summary = summaries.get(0);
+        assertEquals("ERROR", summary.getLevel());
+        assertEquals("Movie {} not found", summary.getMessage());
+        assertEquals(2, summary.getRepeatCount());
+        assertEquals(3, summary.occurrences());
+        assertTrue(summary.getFirstSeen().isBefore(summary.getLastSeen()));
+        assertEquals(summary.getLastSeen(), summary.getLocalDateTime());
+    }
+}
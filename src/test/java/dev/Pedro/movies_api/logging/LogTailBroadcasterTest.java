@@ -0,0 +1,54 @@
+package dev.Pedro.movies_api.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import dev.Pedro.movies_api.exception.InvalidLogSearchRequestException;
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+
+public class LogTailBroadcasterTest {
+
+    @Test
+    void testConcurrentSubscribesNeverExceedMaxSubscribers() throws InterruptedException {
+
+        LoggingVariables config = new LoggingVariables();
+        config.getTail().setMaxSubscribers(4);
+        LogTailBroadcaster broadcaster = new LogTailBroadcaster(mock(ScheduledExecutorService.class),
+                Runnable::run, config);
+
+        int clients = 32;
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        for (int i = 0; i < clients; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    broadcaster.subscribe(event -> true);
+                    accepted.incrementAndGet();
+                } catch (InvalidLogSearchRequestException e) {
+                    rejected.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(4, accepted.get());
+        assertEquals(clients - 4, rejected.get());
+        assertEquals(4, broadcaster.subscriberCount());
+    }
+}
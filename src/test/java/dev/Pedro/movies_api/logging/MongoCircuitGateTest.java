@@ -0,0 +1,66 @@
+package dev.Pedro.movies_api.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+
+public class MongoCircuitGateTest {
+
+    private CircuitBreakerRegistry registry(boolean automaticTransition) {
+        return CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .waitDurationInOpenState(Duration.ofMillis(50))
+                .automaticTransitionFromOpenToHalfOpenEnabled(automaticTransition)
+                .build());
+    }
+
+    @Test
+    void testAwaitNotOpen_ProbesOpenBreakerIntoHalfOpen() throws InterruptedException {
+
+        CircuitBreakerRegistry registry = registry(false);
+        MongoCircuitGate gate = new MongoCircuitGate(registry);
+        CircuitBreaker breaker = registry.circuitBreaker("mongoCB");
+
+        breaker.transitionToOpenState();
+        assertTrue(gate.isOpen());
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, gate.awaitNotOpen(2000));
+        assertTrue(gate.isHalfOpen());
+
+        // The probe hands its permission back, so the drain loop still gets
+        // its own half-open calls
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onSuccess(0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    void testAwaitNotOpen_AutomaticTransitionResumesDraining() throws InterruptedException {
+
+        CircuitBreakerRegistry registry = registry(true);
+        MongoCircuitGate gate = new MongoCircuitGate(registry);
+
+        registry.circuitBreaker("mongoCB").transitionToOpenState();
+
+        assertNotEquals(CircuitBreaker.State.OPEN, gate.awaitNotOpen(2000));
+        assertFalse(gate.isOpen());
+    }
+
+    @Test
+    void testAwaitNotOpen_ReturnsOpenWhenWaitExpiresFirst() throws InterruptedException {
+
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .waitDurationInOpenState(Duration.ofMinutes(5))
+                .build());
+        MongoCircuitGate gate = new MongoCircuitGate(registry);
+
+        registry.circuitBreaker("mongoCB").transitionToOpenState();
+
+        assertEquals(CircuitBreaker.State.OPEN, gate.awaitNotOpen(150));
+    }
+}
@@ -0,0 +1,136 @@
+package dev.Pedro.movies_api.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.model.LogEvent;
+
+public class MongoLogBufferTest {
+
+    private LoggingVariables config;
+    private LogDropAccounting dropAccounting;
+
+    @BeforeEach
+    void setup() {
+        config = new LoggingVariables();
+        dropAccounting = new LogDropAccounting(config);
+    }
+
+    private MongoLogBuffer buffer(int capacity, int priorityCapacity) {
+        return new MongoLogBuffer(new ArrayBlockingQueue<>(capacity), new ArrayBlockingQueue<>(priorityCapacity),
+                config, dropAccounting);
+    }
+
+    private static LogEvent event(String level, String message) {
+        return new LogEvent(new ObjectId(), level, "dev.Pedro.Api", "main", message);
+    }
+
+    private static List<String> messages(List<LogEvent> events) {
+        return events.stream().map(LogEvent::getMessage).toList();
+    }
+
+    @Test
+    void testDropNewest_RejectsWhenFull() {
+
+        config.setOverflowPolicy(LogOverflowPolicy.DROP_NEWEST);
+        MongoLogBuffer buffer = buffer(2, 1);
+
+        assertTrue(buffer.offerAndVerify(event("INFO", "a")));
+        assertTrue(buffer.offerAndVerify(event("INFO", "b")));
+        assertFalse(buffer.offerAndVerify(event("INFO", "c")));
+
+        assertEquals(List.of("a", "b"), messages(buffer.drainNow(10)));
+    }
+
+    @Test
+    void testDropOldest_EvictsHeadAndCountsIt() {
+
+        config.setOverflowPolicy(LogOverflowPolicy.DROP_OLDEST);
+        MongoLogBuffer buffer = buffer(2, 1);
+
+        buffer.offerAndVerify(event("INFO", "a"));
+        buffer.offerAndVerify(event("DEBUG", "b"));
+        assertTrue(buffer.offerAndVerify(event("INFO", "c")));
+
+        assertEquals(List.of("b", "c"), messages(buffer.drainNow(10)));
+        assertEquals(1, dropAccounting.getDroppedCount("INFO"));
+    }
+
+    @Test
+    void testSample_ShedsLowLevelsAboveWatermark() {
+
+        config.setOverflowPolicy(LogOverflowPolicy.SAMPLE);
+        config.setOverflowSampleWatermark(0.5);
+        config.setOverflowSampleRatio(0);
+        MongoLogBuffer buffer = buffer(4, 1);
+
+        buffer.offerAndVerify(event("INFO", "a"));
+        buffer.offerAndVerify(event("INFO", "b"));
+        // Above the watermark: shed on purpose, still reported as handled
+        assertTrue(buffer.offerAndVerify(event("DEBUG", "c")));
+        assertEquals(2, buffer.size());
+        assertEquals(1, dropAccounting.getDroppedCount("DEBUG"));
+
+        // Priority events overflowing their lane are never sampled
+        assertTrue(buffer.offerAndVerify(event("ERROR", "d")));
+        assertTrue(buffer.offerAndVerify(event("ERROR", "e")));
+        assertEquals(List.of("d", "a", "b", "e"), messages(buffer.drainNow(10)));
+    }
+
+    @Test
+    void testBlock_GivesUpAfterTimeout() {
+
+        config.setOverflowPolicy(LogOverflowPolicy.BLOCK);
+        config.setOverflowBlockTimeoutMs(30);
+        MongoLogBuffer buffer = buffer(1, 1);
+
+        buffer.offerAndVerify(event("INFO", "a"));
+
+        long start = System.nanoTime();
+        assertFalse(buffer.offerAndVerify(event("INFO", "b")));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(25));
+    }
+
+    @Test
+    void testBlock_WaitsForRoom() throws Exception {
+
+        config.setOverflowPolicy(LogOverflowPolicy.BLOCK);
+        config.setOverflowBlockTimeoutMs(5000);
+        MongoLogBuffer buffer = buffer(1, 1);
+
+        buffer.offerAndVerify(event("INFO", "a"));
+        CompletableFuture<Boolean> blocked = CompletableFuture.supplyAsync(
+                () -> buffer.offerAndVerify(event("INFO", "b")));
+
+        Thread.sleep(50);
+        assertFalse(blocked.isDone());
+        assertEquals(List.of("a"), messages(buffer.drainNow(1)));
+
+        assertTrue(blocked.get(2, TimeUnit.SECONDS));
+        assertEquals(List.of("b"), messages(buffer.drainNow(1)));
+    }
+
+    @Test
+    void testRequeue_ReturnsWhatDoesNotFit() {
+
+        MongoLogBuffer buffer = buffer(1, 1);
+        LogEvent info = event("INFO", "a");
+        LogEvent warn = event("WARN", "b");
+        LogEvent overflow = event("INFO", "c");
+
+        List<LogEvent> rejected = buffer.requeue(List.of(info, warn, overflow));
+
+        assertEquals(List.of(overflow), rejected);
+        assertEquals(2, buffer.size());
+        assertEquals(1, buffer.prioritySize());
+    }
+}
@@ -0,0 +1,83 @@
+package dev.Pedro.movies_api.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.model.LogEvent;
+
+public class RecentLogIndexTest {
+
+    private LoggingVariables config;
+
+    @BeforeEach
+    void setup() {
+        config = new LoggingVariables();
+        config.getRecent().setEnabled(true);
+        config.getRecent().setCapacity(4);
+    }
+
+    private static LogEvent event(String message) {
+        return new LogEvent(new ObjectId(), "INFO", "dev.Pedro.Api", "main", message);
+    }
+
+    @Test
+    void testDisabledByDefault() {
+
+        RecentLogIndex ring = new RecentLogIndex(new LoggingVariables());
+        ring.append(List.of(event("a")));
+
+        assertFalse(ring.covers(LocalDateTime.now(ZoneOffset.UTC).plusSeconds(1)));
+        assertTrue(ring.find(null, null, e -> true).isEmpty());
+    }
+
+    @Test
+    void testAppend_SkipsLogIdsAlreadyInRing() {
+
+        RecentLogIndex ring = new RecentLogIndex(config);
+        LogEvent first = event("first");
+        LogEvent second = event("second");
+
+        ring.append(List.of(first, second));
+        // A requeued batch written a second time
+        ring.append(List.of(first, second));
+
+        assertEquals(List.of(first, second), ring.find(null, null, e -> true));
+    }
+
+    @Test
+    void testAppend_EvictedLogIdCanBeAddedAgain() {
+
+        RecentLogIndex ring = new RecentLogIndex(config);
+        LogEvent first = event("first");
+
+        ring.append(List.of(first, event("b"), event("c"), event("d"), event("e")));
+        ring.append(List.of(first));
+
+        assertEquals(4, ring.find(null, null, e -> true).size());
+        assertEquals(1, ring.find(null, null, e -> e == first).size());
+    }
+
+    @Test
+    void testMarkIncomplete_StopsCoveringTheSpilledWindow() throws InterruptedException {
+
+        RecentLogIndex ring = new RecentLogIndex(config);
+        Thread.sleep(5);
+        LocalDateTime beforeSpill = LocalDateTime.now(ZoneOffset.UTC);
+        assertTrue(ring.covers(beforeSpill));
+
+        Thread.sleep(5);
+        ring.markIncomplete();
+
+        assertFalse(ring.covers(beforeSpill));
+        Thread.sleep(5);
+        assertTrue(ring.covers(LocalDateTime.now(ZoneOffset.UTC)));
+    }
+}
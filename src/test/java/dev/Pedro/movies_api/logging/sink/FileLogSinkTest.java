@@ -0,0 +1,40 @@
+package dev.Pedro.movies_api.logging.sink;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.model.LogEvent;
+
+public class FileLogSinkTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWrite_FailedRollReportsTheIOException() throws IOException {
+
+        LoggingVariables config = new LoggingVariables();
+        Path sinkDirectory = directory.resolve("sink");
+        config.getSink().setDirectory(sinkDirectory.toString());
+        FileLogSink sink = new FileLogSink(config);
+
+        // The first segment cannot be created any more
+        Files.delete(sinkDirectory);
+
+        UncheckedIOException e = assertThrows(UncheckedIOException.class,
+                () -> sink.write(List.of(new LogEvent(new ObjectId(), "INFO", "dev.Pedro.Api", "main", "a"))));
+        assertNotNull(e.getCause());
+
+        sink.close();
+    }
+}
@@ -0,0 +1,71 @@
+package dev.Pedro.movies_api.logging.sink;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+
+@ExtendWith(MockitoExtension.class)
+public class LogRollupJobTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private LogCollectionLayout layout;
+
+    @Mock
+    private ScheduledExecutorService executor;
+
+    private LoggingVariables config;
+
+    private LogRollupJob job;
+
+    @BeforeEach
+    void setup() {
+        config = new LoggingVariables();
+        config.getRollup().setSettleMs(0);
+        job = new LogRollupJob(layout, mongoTemplate, executor, config);
+        when(layout.collectionFor(any())).thenReturn("logEvents");
+        when(layout.field(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void testRollUp_AdvancesWatermarkAcrossHoursWithoutLogs() {
+
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime watermark = now.minusHours(72);
+        when(mongoTemplate.findById(LogRollupJob.WATERMARK_ID, Document.class, LogRollupJob.COLLECTION))
+                .thenReturn(new Document(LogRollupJob.ROLLED_UP_TO, Date.from(watermark.toInstant(ZoneOffset.UTC))));
+
+        job.rollUp();
+
+        verify(mongoTemplate, times(24)).aggregate(any(Aggregation.class), eq("logEvents"), eq(Document.class));
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(24)).upsert(any(Query.class), updates.capture(), eq(LogRollupJob.COLLECTION));
+
+        List<Update> saved = updates.getAllValues();
+        Document last = saved.get(saved.size() - 1).getUpdateObject().get("$set", Document.class);
+        assertEquals(Date.from(watermark.plusHours(23).toInstant(ZoneOffset.UTC)), last.get(LogRollupJob.ROLLED_UP_TO));
+    }
+}
@@ -0,0 +1,98 @@
+package dev.Pedro.movies_api.logging.spill;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.model.LogEvent;
+
+public class LogSpillStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private LoggingVariables config;
+
+    @BeforeEach
+    void setup() {
+        config = new LoggingVariables();
+        config.getSpill().setDirectory(directory.toString());
+        config.getSpill().setSegmentSizeBytes(4096);
+        config.getSpill().setMaxSegments(4);
+    }
+
+    private static LogEvent event(String message) {
+        return new LogEvent(new ObjectId(), "INFO", "dev.Pedro.Api", "main", message);
+    }
+
+    private long segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void testAppend_ReadsBackInOrderAndAcknowledges() {
+
+        LogSpillStore store = new LogSpillStore(config);
+        assertTrue(store.isEmpty());
+
+        assertEquals(3, store.append(List.of(event("a"), event("b"), event("c"))));
+        assertFalse(store.isEmpty());
+
+        LogSpillStore.SpillBatch batch = store.read(2);
+        assertEquals(List.of("a", "b"), batch.events().stream().map(LogEvent::getMessage).toList());
+        store.acknowledge(batch);
+
+        LogSpillStore.SpillBatch rest = store.read(10);
+        assertEquals(List.of("c"), rest.events().stream().map(LogEvent::getMessage).toList());
+        store.acknowledge(rest);
+        assertTrue(store.isEmpty());
+    }
+
+    @Test
+    void testAppend_StopsWhenBudgetIsExhausted() {
+
+        LogSpillStore store = new LogSpillStore(config);
+        List<LogEvent> logs = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            logs.add(event("event " + i));
+        }
+
+        int written = store.append(logs);
+
+        assertTrue(written > 0 && written < logs.size());
+        assertFalse(store.append(event("late")));
+    }
+
+    @Test
+    void testIsEmpty_DoesNotDeleteRecoveredSegments() throws Exception {
+
+        LogSpillStore previousRun = new LogSpillStore(config);
+        previousRun.append(List.of(event("a"), event("b")));
+        previousRun.force();
+
+        LogSpillStore store = new LogSpillStore(config);
+        assertFalse(store.isEmpty());
+
+        LogSpillStore.SpillBatch batch = store.read(10);
+        assertEquals(2, batch.events().size());
+        assertFalse(store.isEmpty());
+        assertEquals(1, segmentFiles());
+
+        // The sealed segment is deleted once acknowledged, not by isEmpty
+        store.acknowledge(batch);
+        assertTrue(store.isEmpty());
+        assertEquals(0, segmentFiles());
+    }
+}
@@ -0,0 +1,139 @@
+package dev.Pedro.movies_api.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+
+import dev.Pedro.movies_api.dto.request.LogHistogramRequest;
+import dev.Pedro.movies_api.dto.request.LogRollupRequest;
+import dev.Pedro.movies_api.dto.response.LogHistogramBucket;
+import dev.Pedro.movies_api.dto.response.LogRollup;
+import dev.Pedro.movies_api.exception.InvalidLogSearchRequestException;
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.logging.sink.LogTemplateDictionary;
+
+@ExtendWith(MockitoExtension.class)
+public class LogStatisticsServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private LogTemplateDictionary templates;
+
+    private LoggingVariables config;
+
+    private LogStatisticsService logStatisticsService;
+
+    private LogHistogramRequest request;
+
+    @BeforeEach
+    void setup() {
+        config = new LoggingVariables();
+        logStatisticsService = new LogStatisticsService(mongoTemplate, config, templates);
+        request = new LogHistogramRequest();
+        request.setFrom(LocalDateTime.of(2026, 3, 1, 6, 0));
+        request.setTo(LocalDateTime.of(2026, 3, 1, 12, 0));
+    }
+
+    @Test
+    void testHistogram_GroupsCountersIntoBuckets() {
+
+        request.setBucketMinutes(5);
+        request.setLevel("error");
+        request.setGroupBy(List.of("logger"));
+
+        Date bucket = Date.from(LocalDateTime.of(2026, 3, 1, 6, 5).toInstant(ZoneOffset.UTC));
+        Document result = new Document("_id", new Document("bucket", bucket).append("logger", "app"))
+                .append("count", 42L);
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        when(mongoTemplate.aggregate(aggregation.capture(), eq("logCounts"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(result), new Document()));
+
+        List<LogHistogramBucket> buckets = logStatisticsService.histogram(request);
+
+        assertEquals(1, buckets.size());
+        assertEquals(LocalDateTime.of(2026, 3, 1, 6, 5), buckets.get(0).getBucket());
+        assertEquals("app", buckets.get(0).getLogger());
+        assertNull(buckets.get(0).getLevel());
+        assertEquals(42L, buckets.get(0).getCount());
+
+        String pipeline = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).stream()
+                .map(Document::toJson)
+                .collect(Collectors.joining());
+        assertTrue(pipeline.contains("\"level\": \"ERROR\""));
+        assertTrue(pipeline.contains("\"binSize\": 5"));
+        assertTrue(pipeline.contains("\"logger\": \"$logger\""));
+    }
+
+    @Test
+    void testHistogram_RejectsTooManyBuckets() {
+
+        request.setFrom(LocalDateTime.of(2025, 1, 1, 0, 0));
+
+        assertThrows(InvalidLogSearchRequestException.class, () -> logStatisticsService.histogram(request));
+        verify(mongoTemplate, never()).aggregate(any(Aggregation.class), anyString(), eq(Document.class));
+    }
+
+    @Test
+    void testHistogram_RejectsUnknownGroupField() {
+
+        request.setGroupBy(List.of("message"));
+
+        assertThrows(InvalidLogSearchRequestException.class, () -> logStatisticsService.histogram(request));
+    }
+
+    @Test
+    void testRollups_ReadsHourlySummaries() {
+
+        LogRollupRequest rollupRequest = new LogRollupRequest();
+        rollupRequest.setFrom(LocalDateTime.of(2026, 1, 1, 0, 0));
+        rollupRequest.setTo(LocalDateTime.of(2026, 3, 1, 0, 0));
+        rollupRequest.setLevel("warn");
+
+        Date hour = Date.from(LocalDateTime.of(2026, 2, 1, 13, 0).toInstant(ZoneOffset.UTC));
+        Document rollup = new Document("hour", hour)
+                .append("level", "WARN")
+                .append("logger", "app")
+                .append("count", 7)
+                .append("firstSeen", hour)
+                .append("lastSeen", hour)
+                .append("topMessages", List.of(
+                        new Document("templateId", 42L).append("count", 5),
+                        new Document("message", "Slow query").append("count", 2)));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(Document.class), eq("logRollups")))
+                .thenReturn(List.of(rollup));
+        when(templates.template(42L)).thenReturn("Query on {} took {} ms");
+
+        List<LogRollup> rollups = logStatisticsService.rollups(rollupRequest);
+
+        assertEquals(1, rollups.size());
+        assertEquals(LocalDateTime.of(2026, 2, 1, 13, 0), rollups.get(0).getHour());
+        assertEquals(7L, rollups.get(0).getCount());
+        assertEquals("Query on {} took {} ms", rollups.get(0).getTopMessages().get(0).getMessage());
+        assertEquals(42L, rollups.get(0).getTopMessages().get(0).getTemplateId());
+        assertEquals(5L, rollups.get(0).getTopMessages().get(0).getCount());
+        assertEquals("Slow query", rollups.get(0).getTopMessages().get(1).getMessage());
+        assertEquals("WARN", query.getValue().getQueryObject().getString("level"));
+        assertEquals(new Document("hour", 1), query.getValue().getSortObject());
+    }
+}
@@ -4,37 +4,80 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Query;
 
 import dev.Pedro.movies_api.dto.request.SearchLogRequest;
+import dev.Pedro.movies_api.dto.response.LogSearchPage;
+import dev.Pedro.movies_api.exception.InvalidLogSearchRequestException;
+import dev.Pedro.movies_api.logging.LogDropAccounting;
+import dev.Pedro.movies_api.logging.LogEventPredicate;
+import dev.Pedro.movies_api.logging.LogStorageMode;
+import dev.Pedro.movies_api.logging.LogTailBroadcaster;
 import dev.Pedro.movies_api.logging.MongoLogBuffer;
+import dev.Pedro.movies_api.logging.RecentLogIndex;
+import dev.Pedro.movies_api.logging.codec.LogEventCodec;
+import dev.Pedro.movies_api.logging.configuration.LoggingVariables;
+import dev.Pedro.movies_api.logging.sink.LogCollectionLayout;
+import dev.Pedro.movies_api.logging.sink.LogSink;
+import dev.Pedro.movies_api.logging.sink.LogTemplateDictionary;
+import dev.Pedro.movies_api.logging.spill.LogSpillStore;
 import dev.Pedro.movies_api.model.LogEvent;
-import dev.Pedro.movies_api.repository.LogEventRepository;
 
 @ExtendWith(MockitoExtension.class)
 public class loggingServiceTest {
     @Mock
-    private LogEventRepository logEventRepository;
+    private LogSink logSink;
 
     @Mock
     private MongoLogBuffer buffer;
 
+    @Mock
+    private LogSpillStore spillStore;
+
+    @Mock
+    private LogDropAccounting dropAccounting;
+
     @Mock
     private MongoTemplate mongoTemplate;
 
-    @InjectMocks
+    @Mock
+    private LogTailBroadcaster tailBroadcaster;
+
+    @Mock
+    private RecentLogIndex recentIndex;
+
+    @Mock
+    private LogTemplateDictionary templates;
+
+    private LoggingVariables config;
+
     private LoggingService loggingService;
 
     private LogEvent sampleLog;
@@ -42,6 +85,11 @@ public class loggingServiceTest {
 
     @BeforeEach
     void setup() {
+        config = new LoggingVariables();
+        when(mongoTemplate.getCollectionName(LogEvent.class)).thenReturn("logEvents");
+        lenient().when(templates.render(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        loggingService = new LoggingService(logSink, buffer, spillStore, dropAccounting, mongoTemplate,
+                new LogCollectionLayout(mongoTemplate, config, templates), templates, config, tailBroadcaster, recentIndex, Runnable::run, Runnable::run);
         sampleLog = new LogEvent();
         request = new SearchLogRequest();
     }
@@ -50,13 +98,22 @@ public class loggingServiceTest {
     void testSaveLogsSuccess() throws Exception {
         List<LogEvent> logs = List.of(sampleLog);
 
-        when(logEventRepository.saveAll(logs)).thenReturn(logs);
-
         // Wait for async execution
         CompletableFuture<Void> result = loggingService.saveLogs(logs);
         result.join();
 
-        verify(logEventRepository, times(1)).saveAll(logs);
+        verify(logSink, times(1)).write(logs);
+        verify(recentIndex, times(1)).append(logs);
+    }
+
+    @Test
+    void testSaveLogs_FailedWriteIsNotAddedToRecentIndex() {
+        List<LogEvent> logs = List.of(sampleLog);
+        doThrow(new RuntimeException("DB down")).when(logSink).write(logs);
+
+        assertThrows(CompletionException.class, () -> loggingService.saveLogs(logs).join());
+
+        verify(recentIndex, never()).append(anyList());
     }
 
     @Test
@@ -67,6 +124,31 @@ public class loggingServiceTest {
         loggingService.fallback(logs, cause);
 
         verify(buffer, times(1)).requeue(logs);
+        verify(spillStore, never()).append(anyList());
+    }
+
+    @Test
+    void testFallbackSpillsLogsThatDoNotFitInBuffer() {
+        List<LogEvent> logs = List.of(sampleLog);
+        when(buffer.requeue(logs)).thenReturn(logs);
+        when(spillStore.append(logs)).thenReturn(logs.size());
+
+        loggingService.fallback(logs, new RuntimeException("DB down"));
+
+        verify(spillStore, times(1)).append(logs);
+        verify(recentIndex, times(1)).markIncomplete();
+        verify(dropAccounting, never()).record(any());
+    }
+
+    @Test
+    void testFallbackCountsLogsThatCannotBeSpilledAsDropped() {
+        List<LogEvent> logs = List.of(sampleLog);
+        when(buffer.requeue(logs)).thenReturn(logs);
+        when(spillStore.append(logs)).thenReturn(0);
+
+        loggingService.fallback(logs, new RuntimeException("DB down"));
+
+        verify(dropAccounting, times(1)).record(sampleLog);
     }
 
     @Test
@@ -79,7 +161,7 @@ public class loggingServiceTest {
         when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("logEvents")))
                 .thenReturn(List.of(new Document("message", "Hello")));
 
-        List<Document> results = loggingService.searchLogs(request);
+        List<Document> results = loggingService.searchLogs(request).getLogs();
 
         assertEquals(1, results.size());
         assertEquals("Hello", results.get(0).get("message"));
@@ -97,7 +179,7 @@ public class loggingServiceTest {
         when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("logEvents")))
                 .thenReturn(List.of());
 
-        List<Document> results = loggingService.searchLogs(request);
+        List<Document> results = loggingService.searchLogs(request).getLogs();
 
         assertNotNull(results);
         verify(mongoTemplate, times(1)).find(any(Query.class), eq(Document.class), eq("logEvents"));
@@ -113,7 +195,7 @@ public class loggingServiceTest {
         when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("logEvents")))
                 .thenReturn(List.of(fakeDoc));
 
-        List<Document> results = loggingService.searchLogs(request);
+        List<Document> results = loggingService.searchLogs(request).getLogs();
 
         assertEquals(1, results.size());
         assertEquals("after only", results.get(0).getString("message"));
@@ -131,11 +213,259 @@ public class loggingServiceTest {
         when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("logEvents")))
                 .thenReturn(List.of(fakeDoc));
 
-        List<Document> results = loggingService.searchLogs(request);
+        List<Document> results = loggingService.searchLogs(request).getLogs();
 
         assertEquals(1, results.size());
         assertEquals("before only", results.get(0).getString("message"));
         verify(mongoTemplate, times(1))
                 .find(any(Query.class), eq(Document.class), eq("logEvents"));
     }
+
+    @Test
+    void testSearchLogs_TimeSeriesLayoutQueriesMetaFields() {
+
+        config.getStorage().setMode(LogStorageMode.TIME_SERIES);
+        loggingService = new LoggingService(logSink, buffer, spillStore, dropAccounting, mongoTemplate,
+                new LogCollectionLayout(mongoTemplate, config, templates), templates, config, tailBroadcaster, recentIndex, Runnable::run, Runnable::run);
+        request.setLevel("warn");
+
+        Document stored = new Document("message", "Hello")
+                .append("meta", new Document("level", "WARN").append("logger", "app"));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(Document.class), eq("logEvents")))
+                .thenReturn(List.of(stored));
+
+        List<Document> results = loggingService.searchLogs(request).getLogs();
+
+        assertTrue(query.getValue().getQueryObject().toJson().contains("meta.level"));
+        assertEquals("WARN", results.get(0).getString("level"));
+        assertEquals("app", results.get(0).getString("logger"));
+        assertFalse(results.get(0).containsKey("meta"));
+    }
+
+    @Test
+    void testSearchLogs_DailyLayoutQueriesOverlappingCollectionsInOrder() {
+
+        config.getStorage().setMode(LogStorageMode.DAILY);
+        loggingService = new LoggingService(logSink, buffer, spillStore, dropAccounting, mongoTemplate,
+                new LogCollectionLayout(mongoTemplate, config, templates), templates, config, tailBroadcaster, recentIndex, Runnable::run, Runnable::run);
+        when(mongoTemplate.getCollectionNames()).thenReturn(Set.of(
+                "logEvents_20260102", "logEvents_20260101", "logEvents_20260105", "logEvents_old", "movies"));
+        request.setTimestampAfter(LocalDateTime.of(2026, 1, 1, 12, 0));
+        request.setTimestampBefore(LocalDateTime.of(2026, 1, 2, 3, 0));
+
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("logEvents_20260101")))
+                .thenReturn(List.of(new Document("message", "first")));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("logEvents_20260102")))
+                .thenReturn(List.of(new Document("message", "second")));
+
+        List<Document> results = loggingService.searchLogs(request).getLogs();
+
+        assertEquals(List.of("first", "second"), results.stream().map(d -> d.getString("message")).toList());
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), eq("logEvents_20260105"));
+    }
+
+    @Test
+    void testSearchLogs_ReturnsCursorWhenMoreLogsMatch() {
+
+        request.setLimit(2);
+        Date time = new Date();
+        List<Document> stored = List.of(
+                new Document("_id", new ObjectId()).append("localDateTime", time),
+                new Document("_id", new ObjectId()).append("localDateTime", time),
+                new Document("_id", new ObjectId()).append("localDateTime", time));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(Document.class), eq("logEvents"))).thenReturn(stored);
+
+        LogSearchPage page = loggingService.searchLogs(request);
+
+        assertEquals(3, query.getValue().getLimit());
+        assertEquals(2, page.getLogs().size());
+        assertNotNull(page.getNextCursor());
+
+        request.setCursor(page.getNextCursor());
+        when(mongoTemplate.find(query.capture(), eq(Document.class), eq("logEvents"))).thenReturn(List.of());
+
+        LogSearchPage next = loggingService.searchLogs(request);
+
+        assertNull(next.getNextCursor());
+        String filter = query.getValue().getQueryObject().toJson();
+        assertTrue(filter.contains("$or"));
+        assertTrue(filter.contains(stored.get(1).getObjectId("_id").toHexString()));
+    }
+
+    @Test
+    void testSearchLogs_LimitIsCappedByServerMax() {
+
+        request.setLimit(1_000_000);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(Document.class), eq("logEvents"))).thenReturn(List.of());
+
+        loggingService.searchLogs(request);
+
+        assertEquals(config.getSearch().getMaxLimit() + 1, query.getValue().getLimit());
+    }
+
+    @Test
+    void testSearchLogs_RejectsMalformedCursor() {
+
+        request.setCursor("not-a-cursor");
+
+        assertThrows(InvalidLogSearchRequestException.class, () -> loggingService.searchLogs(request));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), anyString());
+    }
+
+    @Test
+    void testExportLogs_StreamsGzippedNdjson() throws Exception {
+
+        request.setLevel("error");
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.stream(query.capture(), eq(Document.class), eq("logEvents"))).thenReturn(Stream.of(
+                new Document("level", "ERROR").append("message", "first"),
+                new Document("level", "ERROR").append("message", "second")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = loggingService.exportLogs(request, out);
+
+        assertEquals(2, exported);
+        assertEquals(0, query.getValue().getFieldsObject().getInteger("_id"));
+        assertEquals(0, query.getValue().getFieldsObject().getInteger(LogEventCodec.MESSAGE_TOKENS));
+        assertEquals(0, query.getValue().getFieldsObject().getInteger(LogEventCodec.MDC_ATTRS));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())), StandardCharsets.UTF_8))) {
+            List<String> lines = reader.lines().toList();
+            assertEquals(2, lines.size());
+            assertEquals("second", Document.parse(lines.get(1)).getString("message"));
+        }
+    }
+
+    @Test
+    void testSearchLogs_KeywordsMatchIndexedTokens() {
+
+        request.setMessageKeywords("Connection REFUSED: db-1");
+        request.setLogger("dev.Pedro.movies_api.service");
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(Document.class), eq("logEvents"))).thenReturn(List.of());
+
+        loggingService.searchLogs(request);
+
+        String filter = query.getValue().getQueryObject().toJson();
+        assertTrue(filter.contains("\"messageTokens\": {\"$all\": [\"connection\", \"refused\", \"db\"]}"));
+        assertTrue(filter.contains("^\\\\Qdev.Pedro.movies_api.service\\\\E"));
+        assertFalse(filter.contains("\"message\""));
+    }
+
+    @Test
+    void testSearchLogs_KeywordsFallBackToRegexOnRequest() {
+
+        request.setMessageKeywords("time(d)? out");
+        request.setMessageRegex(true);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(Document.class), eq("logEvents"))).thenReturn(List.of());
+
+        loggingService.searchLogs(request);
+
+        String filter = query.getValue().getQueryObject().toJson();
+        assertTrue(filter.contains("\"message\""));
+        assertTrue(filter.contains("\"args\""));
+        assertFalse(filter.contains("messageTokens"));
+    }
+
+    @Test
+    void testSearchLogs_RegexAlsoMatchesTemplates() {
+
+        request.setMessageKeywords("movie .* not found");
+        request.setMessageRegex(true);
+        when(templates.idsMatching("movie .* not found")).thenReturn(List.of(42L));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(Document.class), eq("logEvents"))).thenReturn(List.of());
+
+        loggingService.searchLogs(request);
+
+        String filter = query.getValue().getQueryObject().toJson();
+        assertTrue(filter.contains("\"$or\""));
+        assertTrue(filter.contains("\"templateId\": {\"$in\": [42]}"));
+    }
+
+    @Test
+    void testSearchLogs_MdcMatchesAnySubsetOfEntries() {
+
+        request.setMdc(Map.of("requestId", "abc-123"));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(Document.class), eq("logEvents"))).thenReturn(List.of());
+
+        loggingService.searchLogs(request);
+
+        String filter = query.getValue().getQueryObject().toJson();
+        assertTrue(filter.contains(
+                "\"mdcAttrs\": {\"$elemMatch\": {\"k\": \"requestId\", \"v\": \"abc-123\"}}"));
+        assertFalse(filter.contains("\"mdc\""));
+    }
+
+    @Test
+    void testTailLogs_SubscribesWithRequestFilter() {
+
+        request.setLevel("error");
+        request.setLogger("dev.Pedro");
+        request.setMessageKeywords("timed out");
+        ArgumentCaptor<LogEventPredicate> filter = ArgumentCaptor.forClass(LogEventPredicate.class);
+
+        loggingService.tailLogs(request);
+
+        verify(tailBroadcaster).subscribe(filter.capture());
+        LogEvent match = new LogEvent(new ObjectId(), "ERROR", "dev.Pedro.movies_api.Api", "main",
+                "Request timed out after 5s");
+        LogEvent otherLevel = new LogEvent(new ObjectId(), "INFO", "dev.Pedro.movies_api.Api", "main",
+                "Request timed out after 5s");
+        LogEvent otherMessage = new LogEvent(new ObjectId(), "ERROR", "dev.Pedro.movies_api.Api", "main",
+                "Request failed");
+        assertTrue(filter.getValue().test(match));
+        assertFalse(filter.getValue().test(otherLevel));
+        assertFalse(filter.getValue().test(otherMessage));
+    }
+
+    @Test
+    void testTailLogs_RejectsInvalidRegex() {
+
+        request.setThread("http-[");
+
+        assertThrows(InvalidLogSearchRequestException.class, () -> loggingService.tailLogs(request));
+        verify(tailBroadcaster, never()).subscribe(any());
+    }
+
+    @Test
+    void testSearchLogs_RecentWindowIsAnsweredFromMemory() {
+
+        config.getRecent().setEnabled(true);
+        RecentLogIndex ring = new RecentLogIndex(config);
+        loggingService = new LoggingService(logSink, buffer, spillStore, dropAccounting, mongoTemplate,
+                new LogCollectionLayout(mongoTemplate, config, templates), templates, config, tailBroadcaster, ring, Runnable::run,
+                Runnable::run);
+
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC).plusSeconds(1).truncatedTo(ChronoUnit.MILLIS);
+        List<LogEvent> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            LogEvent event = new LogEvent(new ObjectId(), i % 2 == 0 ? "ERROR" : "INFO", "dev.Pedro.Api", "main",
+                    "event " + i);
+            event.setLocalDateTime(now.plusSeconds(i));
+            batch.add(event);
+        }
+        ring.append(batch);
+
+        request.setTimestampAfter(now.minusNanos(1));
+        request.setLevel("error");
+        request.setLimit(2);
+
+        LogSearchPage page = loggingService.searchLogs(request);
+
+        assertEquals(List.of("event 0", "event 2"), page.getLogs().stream().map(d -> d.getString("message")).toList());
+        assertNotNull(page.getNextCursor());
+
+        request.setCursor(page.getNextCursor());
+        LogSearchPage next = loggingService.searchLogs(request);
+
+        assertEquals(List.of("event 4"), next.getLogs().stream().map(d -> d.getString("message")).toList());
+        assertNull(next.getNextCursor());
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), anyString());
+    }
 }